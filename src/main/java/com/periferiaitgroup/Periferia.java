@@ -1,18 +1,25 @@
 package com.periferiaitgroup;
 
 import com.epam.healenium.SelfHealingDriver;
+import com.periferiaitgroup.acciones.EjecutorPlan;
+import com.periferiaitgroup.acciones.LecturaElemento;
+import com.periferiaitgroup.acciones.LectorElementos;
+import com.periferiaitgroup.acciones.PlanFormulario;
 import com.periferiaitgroup.constantes.Navegador;
-import com.periferiaitgroup.driver_manager.SeleniumDriver;
+import com.periferiaitgroup.constantes.PropiedadElemento;
+import com.periferiaitgroup.driver_manager.CacheElementos;
+import com.periferiaitgroup.driver_manager.SesionDriver;
+import com.periferiaitgroup.espera.CondicionEspera;
+import com.periferiaitgroup.espera.MotorEspera;
 import com.periferiaitgroup.evidencia.GenerarEvidencia;
 import com.periferiaitgroup.utilities.RevisorOrtografico;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.languagetool.rules.RuleMatch;
 import org.openqa.selenium.*;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Librería interna Equipo Automatización para pruebas QA en Periferia IT Group.
@@ -21,7 +28,6 @@ import java.util.List;
  */
 public class Periferia {
 
-    protected static SelfHealingDriver driver;
     protected static final int TIMEOUT = 3;
     protected static Logger log = LogManager.getLogger(Periferia.class);
 
@@ -30,12 +36,12 @@ public class Periferia {
     }
 
     /**
-     * Obtiene el controlador de Selenium.
+     * Obtiene el controlador de Selenium de la sesion del hilo actual.
      *
-     * @return El controlador de Selenium.
+     * @return El controlador de Selenium o null si el hilo no ha iniciado una sesion.
      */
     public static SelfHealingDriver getDriver() {
-        return driver;
+        return SesionDriver.driverActual();
     }
 
     /**
@@ -47,13 +53,13 @@ public class Periferia {
      */
     public static SelfHealingDriver setUp(Navegador navegador) {
         try {
-            driver = SeleniumDriver.initDriver(navegador);
+            SesionDriver.iniciar(navegador);
             log.info("Driver iniciado correctamente con el navegador {}", navegador);
         }catch (WebDriverException e){
             log.fatal("Error al inicializar el controlador: {}", e.getMessage());
             throw new WebDriverException("No se pudo inicializar el driver", e);
         }
-        return driver;
+        return getDriver();
     }
 
     /**
@@ -66,7 +72,7 @@ public class Periferia {
      */
     public static SelfHealingDriver setUp(Navegador navegador, String url) {
         try {
-            driver = SeleniumDriver.initDriver(navegador);
+            SesionDriver.iniciar(navegador);
             log.info("Driver iniciado correctamente con el navegador {}", navegador);
 
             Periferia.goUrl(url);
@@ -74,7 +80,7 @@ public class Periferia {
             log.fatal("Error al inicializar el controlador: {}", e.getMessage());
             throw new WebDriverException("No se pudo inicializar el driver", e);
         }
-        return driver;
+        return getDriver();
     }
 
     /**
@@ -88,7 +94,7 @@ public class Periferia {
     public static SelfHealingDriver setUp(String navegador) {
         try {
             Navegador navegadorEmun = Navegador.valueOf(navegador.toUpperCase());
-            driver = SeleniumDriver.initDriver(navegadorEmun);
+            SesionDriver.iniciar(navegadorEmun);
             log.info("Driver inciado correctamente con el navegador {}", navegadorEmun);
         }catch (IllegalArgumentException e){
             log.fatal("El navegador no es valido: {}", e.getMessage());
@@ -97,7 +103,7 @@ public class Periferia {
             log.fatal("Error al inicializar el controlador: {}", e.getMessage());
             throw new WebDriverException("No se pudo inicializar el driver", e);
         }
-        return driver;
+        return getDriver();
     }
 
     /**
@@ -112,7 +118,7 @@ public class Periferia {
     public static SelfHealingDriver setUp(String navegador, String url) {
         try {
             Navegador navegadorEmun = Navegador.valueOf(navegador.toUpperCase());
-            driver = SeleniumDriver.initDriver(navegadorEmun);
+            SesionDriver.iniciar(navegadorEmun);
             log.info("Driver iniciado correctamente con el navegador {}", navegadorEmun);
 
             Periferia.goUrl(url);
@@ -123,26 +129,79 @@ public class Periferia {
             log.fatal("Error al inicializar el controlador: {}", e.getMessage());
             throw new WebDriverException("No se pudo inicializar el driver", e);
         }
-        return driver;
+        return getDriver();
     }
 
     /**
-     * Cierra el controlador de Selenium si está inicializado.
+     * Cierra el controlador de Selenium del hilo actual si está inicializado.
+     * <br/>
+     * Primero espera a que la evidencia pendiente del hilo quede escrita (reporte en pdf y video), luego el navegador
+     * se cierra en segundo plano para que la siguiente prueba pueda iniciar mientras tanto.
+     * Use {@link SesionDriver#esperarCierres(long)} si se necesita esperar a que los navegadores terminen de cerrarse.
+     *
+     * @throws IllegalStateException Si la evidencia pendiente quedo incompleta, el navegador se cierra de todas formas.
      */
     public static void tearDown() {
         try {
-            if (driver != null) {
-                Thread.sleep(2000);
-                driver.close();
-                driver.quit();
-                log.info("Driver cerrado correctamente");
+            try {
+                GenerarEvidencia.esperarEvidenciaPendiente();
+            } finally {
+                // El navegador se libera aunque la evidencia haya quedado incompleta
+                if (getDriver() != null) {
+                    SesionDriver.cerrarAsincrono();
+                    log.info("Driver liberado correctamente");
+                }
             }
-        } catch (WebDriverException | InterruptedException e) {
+        } catch (WebDriverException e) {
             log.fatal("Error al cerrar el controlador: {}", e.getMessage());
             throw new WebDriverException("No se pudo cerrar el driver", e);
         }
     }
 
+    /**
+     * Obtiene el motor de espera de la sesion del hilo actual, permite ajustar la estrategia de polling y el modo de
+     * espera (polling o MutationObserver) que usan todas las acciones de la sesion.
+     *
+     * @return El motor de espera de la sesion.
+     * @throws IllegalStateException Si el hilo actual no ha iniciado una sesion.
+     */
+    public static MotorEspera motorEspera() {
+        return sesionActual().getMotorEspera();
+    }
+
+    /**
+     * Obtiene la cache de elementos de la sesion del hilo actual, permite habilitarla o deshabilitarla y consultar
+     * los aciertos, fallos y elementos obsoletos detectados.
+     *
+     * @return La cache de elementos de la sesion.
+     * @throws IllegalStateException Si el hilo actual no ha iniciado una sesion.
+     */
+    public static CacheElementos cacheElementos() {
+        return sesionActual().getCacheElementos();
+    }
+
+    private static SesionDriver sesionActual() {
+        SesionDriver sesion = SesionDriver.actual();
+        if (sesion == null) {
+            throw new IllegalStateException("No hay una sesion iniciada en el hilo " + Thread.currentThread().getName());
+        }
+        return sesion;
+    }
+
+    /**
+     * Busca el elemento visible primero en la cache de la sesion y, si no esta o ya no es valido, con el motor de espera.
+     */
+    private static WebElement buscarVisible(By locator, int tiempoEspera) {
+        SesionDriver sesion = sesionActual();
+        CacheElementos cache = sesion.getCacheElementos();
+        WebElement element = cache.obtener(locator);
+        if (element == null) {
+            element = sesion.getMotorEspera().esperarVisible(locator, tiempoEspera);
+            cache.guardar(locator, element);
+        }
+        return element;
+    }
+
     /**
      * Navega a la URL proporcionada.
      *
@@ -151,7 +210,8 @@ public class Periferia {
      */
     public static void goUrl(String url) {
         try {
-            driver.get(url);
+            getDriver().get(url);
+            invalidarCache();
             log.info("Navegando a la url: {}", url);
         }catch (WebDriverException e){
             log.fatal("Error al navegar a la url: {}", e.getMessage());
@@ -167,9 +227,8 @@ public class Periferia {
      * @throws NoSuchElementException Si el elemento web no se encuentra en el tiempo de espera de 3 segundos.
      */
     public static WebElement findElement(By locator) {
-        WebDriverWait wait = new WebDriverWait(driver, TIMEOUT);
         try {
-            WebElement element = wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+            WebElement element = buscarVisible(locator, TIMEOUT);
             log.debug("Elemento encontrado: {}", locator);
             return element;
         } catch (Exception e) {
@@ -187,9 +246,8 @@ public class Periferia {
      * @throws NoSuchElementException Si el elemento web no se encuentra en el tiempo de espera proporcionado.
      */
     public static WebElement findElement(By locator, int tiempoEspera) {
-        WebDriverWait wait = new WebDriverWait(driver, tiempoEspera);
         try {
-            WebElement element = wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+            WebElement element = buscarVisible(locator, tiempoEspera);
             log.debug("Elemento encontrado: {}", locator);
             return element;
         } catch (Exception e) {
@@ -206,9 +264,8 @@ public class Periferia {
      * @throws NoSuchElementException Si los elementos web no se encuentran en el tiempo de espera de 3 segundos.
      */
     public static List<WebElement> findElements(By locator) {
-        WebDriverWait wait = new WebDriverWait(driver, TIMEOUT);
         try {
-            List<WebElement> elements = wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
+            List<WebElement> elements = motorEspera().esperar(locator, TIMEOUT, CondicionEspera.TODOS_VISIBLES);
             log.debug("Elementos encontrados: {}", locator);
             return elements;
         } catch (Exception e) {
@@ -226,9 +283,8 @@ public class Periferia {
      * @throws NoSuchElementException Si los elementos web no se encuentran en el tiempo de espera proporcionado.
      */
     public static List<WebElement> findElements(By locator, int tiempoEspera) {
-        WebDriverWait wait = new WebDriverWait(driver, tiempoEspera);
         try {
-            List<WebElement> elements = wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
+            List<WebElement> elements = motorEspera().esperar(locator, tiempoEspera, CondicionEspera.TODOS_VISIBLES);
             log.debug("Elementos encontrados: {}", locator);
             return elements;
         } catch (Exception e) {
@@ -237,6 +293,76 @@ public class Periferia {
         }
     }
 
+    /**
+     * Lee en lote las propiedades solicitadas de varios elementos con un solo script en el navegador, en lugar de
+     * llamar a getText, isDisplayed, isEnable, etc. por cada elemento.
+     *
+     * @param locators    Los localizadores de los elementos, se lee el primer elemento que coincide con cada uno.
+     * @param propiedades Las propiedades que se desean leer.
+     * @return Las lecturas por localizador, en el mismo orden de la lista.
+     * @throws WebDriverException Si ocurre un error al ejecutar la lectura.
+     */
+    public static Map<By, LecturaElemento> leerElementos(List<By> locators, PropiedadElemento... propiedades) {
+        return leerElementos(locators, List.of(propiedades), List.of(), TIMEOUT);
+    }
+
+    /**
+     * Lee en lote las propiedades y atributos solicitados de varios elementos con un solo script en el navegador.
+     * <br/>
+     * Se espera hasta que todos los localizadores existan; si al vencer el tiempo de espera falta alguno, su lectura
+     * se devuelve con {@link LecturaElemento#isEncontrado()} en false.
+     *
+     * @param locators     Los localizadores de los elementos, se lee el primer elemento que coincide con cada uno.
+     * @param propiedades  Las propiedades que se desean leer.
+     * @param atributos    Los atributos que se desean leer.
+     * @param tiempoEspera El tiempo de espera en segundos para que existan los elementos.
+     * @return Las lecturas por localizador, en el mismo orden de la lista.
+     * @throws WebDriverException Si ocurre un error al ejecutar la lectura.
+     */
+    public static Map<By, LecturaElemento> leerElementos(List<By> locators, List<PropiedadElemento> propiedades, List<String> atributos, int tiempoEspera) {
+        try {
+            Map<By, LecturaElemento> lecturas = LectorElementos.leer(getDriver(), motorEspera(), locators, propiedades, atributos, tiempoEspera * 1000L);
+            log.debug("Lectura en lote de {} elementos con las propiedades {} y los atributos {}", locators.size(), propiedades, atributos);
+            return lecturas;
+        } catch (WebDriverException e) {
+            log.fatal("No fue posible leer en lote los elementos {}, por el error {}", locators, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Ejecuta un plan ordenado de pasos clear, sendKeys y click con el menor numero de viajes de ida y vuelta.
+     * Solo se captura evidencia en los pasos que llevan un mensaje de evidencia.
+     * <br/>
+     * Los pasos se agrupan en tramos que terminan en un click o en un paso con evidencia, y antes de cada tramo se
+     * espera a que todos sus campos sean visibles. Si un campo solo aparece al escribir en un campo anterior del mismo
+     * tramo la espera vence; en ese caso el tramo se debe cortar antes con un click o un paso con evidencia.
+     *
+     * @param plan El plan a ejecutar.
+     * @throws WebDriverException Si los elementos no son visibles en el tiempo de espera de 3 segundos o falla algun paso.
+     * @see PlanFormulario
+     */
+    public static void ejecutarPlan(PlanFormulario plan) {
+        ejecutarPlan(plan, TIMEOUT);
+    }
+
+    /**
+     * Ejecuta un plan ordenado de pasos clear, sendKeys y click con el menor numero de viajes de ida y vuelta.
+     * Solo se captura evidencia en los pasos que llevan un mensaje de evidencia.
+     * <br/>
+     * Los pasos se agrupan en tramos que terminan en un click o en un paso con evidencia, y antes de cada tramo se
+     * espera a que todos sus campos sean visibles. Si un campo solo aparece al escribir en un campo anterior del mismo
+     * tramo la espera vence; en ese caso el tramo se debe cortar antes con un click o un paso con evidencia.
+     *
+     * @param plan         El plan a ejecutar.
+     * @param tiempoEspera El tiempo de espera en segundos para que los elementos de cada tramo sean visibles.
+     * @throws WebDriverException Si los elementos no son visibles en el tiempo de espera o falla algun paso.
+     * @see PlanFormulario
+     */
+    public static void ejecutarPlan(PlanFormulario plan, int tiempoEspera) {
+        EjecutorPlan.ejecutar(getDriver(), motorEspera(), plan, tiempoEspera * 1000L);
+    }
+
     /**
      * Realiza clic en el elemento web que coincide con el localizador proporcionado.
      *
@@ -283,10 +409,10 @@ public class Periferia {
         try {
             WebElement element = findElement(locator);
             element.click();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("Click en el elemento: {} y correcto guardo de evidencia", locator);
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("No fue posible realizar clic sobre el elemento {}, en el tiempo 3 seg, por el error {}", locator, e.getMessage());
             throw e;
         }
@@ -304,10 +430,10 @@ public class Periferia {
         try {
             WebElement element = findElement(locator, tiempoEspera);
             element.click();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("Click en el elemento: {}, dentro del tiempo {} seg y correcto guardo de evidencia", locator, tiempoEspera);
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("No fue posible realizar clic sobre el elemento {}, en el tiempo {}, por el error {}", locator, tiempoEspera, e.getMessage());
             throw e;
         }
@@ -362,10 +488,10 @@ public class Periferia {
         try {
             WebElement element = findElement(locator);
             element.sendKeys(texto);
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("Envio de texto '{}' sobre el elemento: {} y correcto guardo de evidencia", texto, locator);
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("No fue posible realizar el envio de texto sobre el elemento {}, en el tiempo 3 seg, por el error {}", locator, e.getMessage());
             throw e;
         }
@@ -384,10 +510,10 @@ public class Periferia {
         try {
             WebElement element = findElement(locator, tiempoEspera);
             element.sendKeys(texto);
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("Envio de texto '{}' sobre el elemento: {}, dentro del tiempo {} seg y correcto guardo de evidencia", texto, locator, tiempoEspera);
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("No fue posible realizar el envio de texto sobre el elemento {}, en el tiempo {}, por el error {}", locator, tiempoEspera, e.getMessage());
             throw e;
         }
@@ -444,11 +570,11 @@ public class Periferia {
         try {
             WebElement element = findElement(locator);
             String text = element.getText();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("Obtener texto sobre el elemento: {} y correcto guardo de evidencia", locator);
             return text;
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("No fue posible obtener el texto sobre el elemento {}, en el tiempo 3 seg, por el error {}", locator, e.getMessage());
             throw e;
         }
@@ -467,11 +593,11 @@ public class Periferia {
         try {
             WebElement element = findElement(locator, tiempoEspera);
             String text = element.getText();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("Obtener texto sobre el elemento: {}, dentro del tiempo {} seg y correcto guardo de evidencia", locator, tiempoEspera);
             return text;
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("No fue posible obtener el texto sobre el elemento {}, en el tiempo {}, por el error {}", locator, tiempoEspera, e.getMessage());
             throw e;
         }
@@ -523,10 +649,10 @@ public class Periferia {
         try {
             WebElement element = findElement(locator);
             element.clear();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("Limpiar campo sobre el elemento: {} y correcto guardo de evidencia", locator);
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("No fue posible limpiar el campo sobre el elemento {}, en el tiempo 3 seg, por el error {}", locator, e.getMessage());
             throw e;
         }
@@ -543,10 +669,10 @@ public class Periferia {
         try {
             WebElement element = findElement(locator, tiempoEspera);
             element.clear();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("Limpiar campo sobre el elemento: {}, dentro del tiempo {} seg y correcto guardo de evidencia", locator, tiempoEspera);
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("No fue posible limpiar el campo sobre el elemento {}, en el tiempo {}, por el error {}", locator, tiempoEspera, e.getMessage());
             throw e;
         }
@@ -603,11 +729,11 @@ public class Periferia {
         try {
             WebElement element = findElement(locator);
             boolean isDisplayed = element.isDisplayed();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("El elemento: {} se encuentra visible y correcto guardo de evidencia", locator);
             return isDisplayed;
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("El elemento: {} no se encuentra visible, por el error {}", locator, e.getMessage());
             throw e;
         }
@@ -626,11 +752,11 @@ public class Periferia {
         try {
             WebElement element = findElement(locator, tiempoEspera);
             boolean isDisplayed = element.isDisplayed();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("El elemento: {} se encuentra visible, dentro del tiempo {} seg y correcto guardo de evidencia", locator, tiempoEspera);
             return isDisplayed;
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("El elemento: {} no se encuentra visible, por el error {}", locator, e.getMessage());
             throw e;
         }
@@ -687,11 +813,11 @@ public class Periferia {
         try {
             WebElement element = findElement(locator);
             boolean isEnable = element.isEnabled();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("El elemento: {} se encuentra habilitado y correcto guardo de evidencia", locator);
             return isEnable;
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("El elemento: {} no se encuentra habilitado, por el error {}", locator, e.getMessage());
             throw e;
         }
@@ -710,11 +836,11 @@ public class Periferia {
         try {
             WebElement element = findElement(locator, tiempoEspera);
             boolean isEnable = element.isEnabled();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("El elemento: {} se encuentra habilitado, dentro del tiempo {} seg y correcto guardo de evidencia", locator, tiempoEspera);
             return isEnable;
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("El elemento: {} no se encuentra habilitado, por el error {}", locator, e.getMessage());
             throw e;
         }
@@ -780,11 +906,11 @@ public class Periferia {
         try {
             WebElement element = findElement(locator);
             boolean isSelected = element.isSelected();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("El elemento: {} se encuentra seleccionado y correcto guardo de evidencia", locator);
             return isSelected;
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("El elemento: {} no se encuentra seleccionado, por el error {}", locator, e.getMessage());
             throw e;
         }
@@ -806,11 +932,11 @@ public class Periferia {
         try {
             WebElement element = findElement(locator, tiempoEspera);
             boolean isSelected = element.isSelected();
-            GenerarEvidencia.capturarEvidencia(driver, mensajeEvidencia);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensajeEvidencia);
             log.debug("El elemento: {} se encuentra seleccionado, dentro del tiempo {} seg y correcto guardo de evidencia", locator, tiempoEspera);
             return isSelected;
         } catch (Exception e) {
-            GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            GenerarEvidencia.capturarEvidencia(getDriver(), e.getMessage(), locator);
             log.fatal("El elemento: {} no se encuentra seleccionado, por el error {}", locator, e.getMessage());
             throw e;
         }
@@ -904,7 +1030,7 @@ public class Periferia {
      */
     public static String obtenerTitulo() {
         try {
-            return driver.getTitle();
+            return getDriver().getTitle();
         } catch (Exception e) {
             log.fatal("No fue posible obtener el titulo de la pagina, por el error {}", e.getMessage());
             throw new IllegalStateException("No se pudo obtener el título de la página.", e);
@@ -919,7 +1045,7 @@ public class Periferia {
      */
     public static String obtenerUrlActual() {
         try {
-            return driver.getCurrentUrl();
+            return getDriver().getCurrentUrl();
         } catch (Exception e) {
             log.fatal("No fue posible obtener la url actual de la pagina, por el error {}", e.getMessage());
             throw new IllegalStateException("No se pudo obtener la URL actual de la página.", e);
@@ -933,7 +1059,8 @@ public class Periferia {
      */
     public static void paginaAtras() {
         try {
-            driver.navigate().back();
+            getDriver().navigate().back();
+            invalidarCache();
         } catch (Exception e) {
             log.fatal("No fue posible navegar a la pagina anterior, por el error {}", e.getMessage());
             throw new IllegalStateException("No se pudo navegar a la página anterior.", e);
@@ -947,7 +1074,8 @@ public class Periferia {
      */
     public static void paginaAdelante() {
         try {
-            driver.navigate().forward();
+            getDriver().navigate().forward();
+            invalidarCache();
         } catch (Exception e) {
             log.fatal("No fue posible navegar a la pagina siguiente, por el error {}", e.getMessage());
             throw new IllegalStateException("No se pudo navegar a la página siguiente.", e);
@@ -961,7 +1089,8 @@ public class Periferia {
      */
     public static void actualizarPagina() {
         try {
-            driver.navigate().refresh();
+            getDriver().navigate().refresh();
+            invalidarCache();
         } catch (Exception e) {
             log.fatal("No fue posible actualizar la pagina, por el error {}", e.getMessage());
             throw new IllegalStateException("No se pudo actualizar la página.", e);
@@ -976,7 +1105,8 @@ public class Periferia {
      */
     public static void cambiarFrame(String frameID) {
         try {
-            driver.switchTo().frame(frameID);
+            getDriver().switchTo().frame(frameID);
+            cacheElementos().entrarFrame("id:" + frameID);
         } catch (Exception e) {
             log.fatal("No fue posible cambiar de frame, por el error {}", e.getMessage());
             throw new IllegalStateException("No se pudo cambiar de frame.", e);
@@ -991,7 +1121,8 @@ public class Periferia {
      */
     public static void cambiarFrame(int index) {
         try {
-            driver.switchTo().frame(index);
+            getDriver().switchTo().frame(index);
+            cacheElementos().entrarFrame("indice:" + index);
         } catch (Exception e) {
             log.fatal("No fue posible cambiar de frame, por el error {}", e.getMessage());
             throw new IllegalStateException("No se pudo cambiar de frame.", e);
@@ -1006,7 +1137,8 @@ public class Periferia {
      */
     public static void cambiarFrame(By nombreFrame) {
         try {
-            driver.switchTo().frame(findElement(nombreFrame));
+            getDriver().switchTo().frame(findElement(nombreFrame));
+            cacheElementos().entrarFrame(nombreFrame.toString());
         } catch (Exception e) {
             log.fatal("No fue posible cambiar de frame, por el error {}", e.getMessage());
             throw new IllegalStateException("No se pudo cambiar de frame.", e);
@@ -1020,20 +1152,44 @@ public class Periferia {
      */
     public static void salirFrame() {
         try {
-            driver.switchTo().parentFrame();
+            getDriver().switchTo().parentFrame();
+            cacheElementos().salirFrame();
         } catch (Exception e) {
             log.fatal("No fue posible salir del frame, por el error {}", e.getMessage());
             throw new IllegalStateException("No se pudo salir del frame.", e);
         }
     }
 
+    /**
+     * Cambia el foco del controlador de Selenium a la ventana o pestaña especificada.
+     *
+     * @param ventana El identificador (window handle) o nombre de la ventana.
+     * @throws IllegalStateException Si no es posible cambiar a la ventana especificada.
+     */
+    public static void cambiarVentana(String ventana) {
+        try {
+            getDriver().switchTo().window(ventana);
+            cacheElementos().cambiarVentana(ventana);
+        } catch (Exception e) {
+            log.fatal("No fue posible cambiar de ventana, por el error {}", e.getMessage());
+            throw new IllegalStateException("No se pudo cambiar de ventana.", e);
+        }
+    }
+
+    private static void invalidarCache() {
+        SesionDriver sesion = SesionDriver.actual();
+        if (sesion != null) {
+            sesion.getCacheElementos().invalidar();
+        }
+    }
+
     /**
      * Captura una evidencia de la pantalla actual.
      *
      * @param mensaje El mensaje que se desea capturar en la evidencia.
      */
     public static void capturarEvidencia(String mensaje) {
-        GenerarEvidencia.capturarEvidencia(driver, mensaje);
+        GenerarEvidencia.capturarEvidencia(getDriver(), mensaje);
     }
 
     /**
@@ -1046,7 +1202,7 @@ public class Periferia {
     public static void capturarEvidencia(String mensaje, int tiempoEspera) {
         try {
             Thread.sleep(tiempoEspera * 1000L);
-            GenerarEvidencia.capturarEvidencia(driver, mensaje);
+            GenerarEvidencia.capturarEvidencia(getDriver(), mensaje);
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         }
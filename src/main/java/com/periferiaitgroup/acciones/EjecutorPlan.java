@@ -0,0 +1,228 @@
+package com.periferiaitgroup.acciones;
+
+import com.periferiaitgroup.constantes.ModoPlan;
+import com.periferiaitgroup.espera.CondicionEspera;
+import com.periferiaitgroup.espera.LocalizadorJS;
+import com.periferiaitgroup.espera.MotorEspera;
+import com.periferiaitgroup.evidencia.GenerarEvidencia;
+import com.periferiaitgroup.utilities.PropertyFileReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ejecuta un {@link PlanFormulario} con el menor numero de viajes de ida y vuelta posible.
+ * <br/>
+ * El plan se divide en tramos que terminan en un click o en un paso con evidencia, porque despues de esos pasos la
+ * pagina puede cambiar. Por cada tramo se hace una sola barrera de visibilidad (un script que localiza todos los
+ * elementos del tramo y se repite con el {@link MotorEspera} hasta que son visibles) y luego:
+ * <ul>
+ *     <li>{@link ModoPlan#SCRIPT} (opcional): los clear y sendKeys sobre campos de texto se aplican en un solo script que dispara
+ *     los eventos input y change. Los pasos que el script no puede aplicar (teclas especiales como {@code Keys.ENTER},
+ *     campos de archivo, campos deshabilitados, etc.) se ejecutan con eventos nativos y el script continua con el resto.</li>
+ *     <li>{@link ModoPlan#EVENTOS_NATIVOS} (por defecto): cada paso usa clear y sendKeys de WebDriver sobre los elementos
+ *     ya localizados.</li>
+ * </ul>
+ * Los click siempre son nativos para conservar las validaciones de WebDriver (elemento cubierto, no interactuable).
+ */
+public class EjecutorPlan {
+
+    protected static Logger log = LogManager.getLogger(EjecutorPlan.class);
+
+    private static final String SCRIPT_BARRERA = LocalizadorJS.FUNCIONES + """
+            var objetivos = arguments[0], elementos = [];
+            for (var i = 0; i < objetivos.length; i++) {
+                var objetivo = objetivos[i];
+                var candidatos = objetivo.elemento ? [objetivo.elemento] : buscar(objetivo.tipo, objetivo.valor);
+                var encontrado = null;
+                for (var j = 0; j < candidatos.length; j++) {
+                    if (visible(candidatos[j])) { encontrado = candidatos[j]; break; }
+                }
+                if (!encontrado) { return null; }
+                elementos.push(encontrado);
+            }
+            return elementos;
+            """;
+
+    private static final String SCRIPT_LLENADO = """
+            var elementos = arguments[0], pasos = arguments[1], aplicados = 0;
+            var noEscribibles = ['file', 'checkbox', 'radio', 'button', 'submit', 'reset', 'image', 'color', 'range',
+                'date', 'datetime-local', 'month', 'time', 'week'];
+            function escribible(e) {
+                if (e.disabled || e.readOnly) { return false; }
+                if (e.tagName === 'TEXTAREA') { return true; }
+                return e.tagName === 'INPUT' && noEscribibles.indexOf((e.type || '').toLowerCase()) < 0;
+            }
+            function teclasEspeciales(texto) {
+                for (var i = 0; i < texto.length; i++) {
+                    var codigo = texto.charCodeAt(i);
+                    if (codigo >= 0xE000 && codigo <= 0xF8FF) { return true; }
+                }
+                return false;
+            }
+            function asignar(e, valor) {
+                var descriptor = Object.getOwnPropertyDescriptor(Object.getPrototypeOf(e), 'value');
+                if (descriptor && descriptor.set) { descriptor.set.call(e, valor); } else { e.value = valor; }
+                e.dispatchEvent(new Event('input', {bubbles: true}));
+                e.dispatchEvent(new Event('change', {bubbles: true}));
+            }
+            for (var i = 0; i < pasos.length; i++) {
+                var e = elementos[i], paso = pasos[i];
+                if (!escribible(e)) { break; }
+                if (paso.tipo === 'CLEAR') {
+                    asignar(e, '');
+                } else {
+                    if (teclasEspeciales(paso.texto)) { break; }
+                    var valor = e.value + paso.texto;
+                    if (e.maxLength >= 0 && valor.length > e.maxLength) { valor = valor.substring(0, e.maxLength); }
+                    e.focus();
+                    asignar(e, valor);
+                }
+                aplicados++;
+            }
+            return aplicados;
+            """;
+
+    private EjecutorPlan() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Ejecuta el plan en la sesion indicada.
+     *
+     * @param driver         El driver de la sesion.
+     * @param motorEspera    El motor de espera de la sesion.
+     * @param plan           El plan a ejecutar.
+     * @param tiempoEsperaMs El tiempo de espera en milisegundos de cada barrera de visibilidad.
+     * @throws org.openqa.selenium.TimeoutException Si los elementos de un tramo no son visibles a tiempo.
+     * @throws org.openqa.selenium.WebDriverException Si falla alguno de los pasos.
+     */
+    public static void ejecutar(WebDriver driver, MotorEspera motorEspera, PlanFormulario plan, long tiempoEsperaMs) {
+        ModoPlan modo = plan.getModo() != null ? plan.getModo()
+                : ModoPlan.valueOf(PropertyFileReader.obtenerPropiedad("FORMULARIO_MODO", ModoPlan.EVENTOS_NATIVOS.name()).toUpperCase());
+        List<PlanFormulario.Paso> pasos = plan.getPasos();
+        int inicio = 0;
+        int[] actual = {0};
+        try {
+            while (inicio < pasos.size()) {
+                int fin = finTramo(pasos, inicio);
+                List<PlanFormulario.Paso> tramo = pasos.subList(inicio, fin);
+                actual[0] = 0;
+                List<WebElement> elementos = barrera(driver, motorEspera, tramo, tiempoEsperaMs);
+                ejecutarTramo(driver, modo, tramo, elementos, actual);
+
+                PlanFormulario.Paso ultimo = tramo.get(tramo.size() - 1);
+                if (ultimo.mensajeEvidencia() != null) {
+                    GenerarEvidencia.capturarEvidencia(driver, ultimo.mensajeEvidencia());
+                }
+                inicio = fin;
+            }
+        } catch (WebDriverException e) {
+            By locator = pasos.get(Math.min(inicio + actual[0], pasos.size() - 1)).locator();
+            if (plan.tieneEvidencia()) {
+                GenerarEvidencia.capturarEvidencia(driver, e.getMessage(), locator);
+            }
+            log.fatal("Fallo el plan de formulario en el paso sobre el elemento {}, por el error {}", locator, e.getMessage());
+            throw e;
+        }
+        log.debug("Plan de formulario de {} pasos ejecutado en modo {}", pasos.size(), modo);
+    }
+
+    /**
+     * Un tramo termina despues de un click o de un paso con evidencia.
+     */
+    private static int finTramo(List<PlanFormulario.Paso> pasos, int inicio) {
+        for (int i = inicio; i < pasos.size(); i++) {
+            PlanFormulario.Paso paso = pasos.get(i);
+            if (paso.tipo() == PlanFormulario.TipoPaso.CLICK || paso.mensajeEvidencia() != null) {
+                return i + 1;
+            }
+        }
+        return pasos.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<WebElement> barrera(WebDriver driver, MotorEspera motorEspera, List<PlanFormulario.Paso> tramo, long tiempoEsperaMs) {
+        long limite = System.nanoTime() + tiempoEsperaMs * 1_000_000L;
+        List<Map<String, Object>> objetivos = new ArrayList<>(tramo.size());
+        for (PlanFormulario.Paso paso : tramo) {
+            Map<String, Object> objetivo = new HashMap<>();
+            LocalizadorJS localizador = LocalizadorJS.desde(paso.locator());
+            if (localizador != null) {
+                objetivo.put("tipo", localizador.getTipo());
+                objetivo.put("valor", localizador.getValor());
+            } else {
+                long restanteMs = Math.max(0, (limite - System.nanoTime()) / 1_000_000L);
+                objetivo.put("elemento", motorEspera.esperarMilisegundos(paso.locator(), restanteMs, CondicionEspera.VISIBLE));
+            }
+            objetivos.add(objetivo);
+        }
+
+        long restanteMs = Math.max(0, (limite - System.nanoTime()) / 1_000_000L);
+        By primero = tramo.get(0).locator();
+        return motorEspera.esperarMilisegundos(primero, restanteMs,
+                (d, l) -> (List<WebElement>) ((JavascriptExecutor) driver).executeScript(SCRIPT_BARRERA, objetivos));
+    }
+
+    /**
+     * Ejecuta los pasos de un tramo, {@code actual[0]} queda con el indice del paso en curso para reportar fallas.
+     */
+    private static void ejecutarTramo(WebDriver driver, ModoPlan modo, List<PlanFormulario.Paso> tramo, List<WebElement> elementos, int[] actual) {
+        int i = 0;
+        while (i < tramo.size()) {
+            actual[0] = i;
+            PlanFormulario.Paso paso = tramo.get(i);
+            if (modo == ModoPlan.SCRIPT && paso.tipo() != PlanFormulario.TipoPaso.CLICK) {
+                i += llenarConScript(driver, tramo, elementos, i);
+                if (i >= tramo.size()) {
+                    break;
+                }
+                paso = tramo.get(i);
+                if (paso.tipo() == PlanFormulario.TipoPaso.CLICK) {
+                    continue;
+                }
+                actual[0] = i;
+            }
+            ejecutarNativo(paso, elementos.get(i));
+            i++;
+        }
+    }
+
+    /**
+     * Aplica con un script los pasos de llenado consecutivos desde el indice indicado.
+     *
+     * @return La cantidad de pasos aplicados, el script se detiene en el primer paso que requiere eventos nativos.
+     */
+    private static int llenarConScript(WebDriver driver, List<PlanFormulario.Paso> tramo, List<WebElement> elementos, int desde) {
+        int hasta = desde;
+        while (hasta < tramo.size() && tramo.get(hasta).tipo() != PlanFormulario.TipoPaso.CLICK) {
+            hasta++;
+        }
+        List<Map<String, Object>> pasos = new ArrayList<>(hasta - desde);
+        for (PlanFormulario.Paso paso : tramo.subList(desde, hasta)) {
+            Map<String, Object> pasoScript = new HashMap<>();
+            pasoScript.put("tipo", paso.tipo().name());
+            pasoScript.put("texto", paso.texto());
+            pasos.add(pasoScript);
+        }
+        Object aplicados = ((JavascriptExecutor) driver).executeScript(SCRIPT_LLENADO, elementos.subList(desde, hasta), pasos);
+        return ((Number) aplicados).intValue();
+    }
+
+    private static void ejecutarNativo(PlanFormulario.Paso paso, WebElement element) {
+        switch (paso.tipo()) {
+            case CLEAR -> element.clear();
+            case SEND_KEYS -> element.sendKeys(paso.texto());
+            case CLICK -> element.click();
+        }
+    }
+}
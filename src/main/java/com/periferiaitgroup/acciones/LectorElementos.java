@@ -0,0 +1,140 @@
+package com.periferiaitgroup.acciones;
+
+import com.periferiaitgroup.constantes.PropiedadElemento;
+import com.periferiaitgroup.espera.LocalizadorJS;
+import com.periferiaitgroup.espera.MotorEspera;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lee propiedades y atributos de varios elementos con un solo {@code executeScript}.
+ * <br/>
+ * Los localizadores soportados por {@link LocalizadorJS} se resuelven dentro del navegador; los demas se buscan con
+ * WebDriver y se envian como argumento del script. Mientras falte algun elemento la lectura se repite con el
+ * {@link MotorEspera} de la sesion, por lo que en el caso normal todo el lote cuesta un solo viaje de ida y vuelta.
+ */
+public class LectorElementos {
+
+    protected static Logger log = LogManager.getLogger(LectorElementos.class);
+
+    private static final String SCRIPT = LocalizadorJS.FUNCIONES + """
+            var objetivos = arguments[0], propiedades = arguments[1], atributos = arguments[2];
+            function leerPropiedad(e, propiedad) {
+                switch (propiedad) {
+                    case 'TEXTO': return visible(e) ? (e.innerText || e.textContent || '').trim() : '';
+                    case 'VISIBLE': return visible(e);
+                    case 'HABILITADO': return !e.disabled;
+                    case 'SELECCIONADO': return !!(e.checked || e.selected);
+                    case 'TAG': return e.tagName.toLowerCase();
+                    case 'VALOR': return e.value === undefined || e.value === null ? null : String(e.value);
+                }
+                return null;
+            }
+            function leerAtributo(e, atributo) {
+                var valor = e[atributo];
+                if (valor !== undefined && valor !== null && typeof valor !== 'object' && typeof valor !== 'function') {
+                    return String(valor);
+                }
+                return e.getAttribute(atributo);
+            }
+            return objetivos.map(function (objetivo) {
+                var e = objetivo.elemento || (objetivo.tipo ? buscar(objetivo.tipo, objetivo.valor)[0] : null);
+                if (!e) { return {encontrado: false}; }
+                var lectura = {encontrado: true, propiedades: {}, atributos: {}};
+                propiedades.forEach(function (p) { lectura.propiedades[p] = leerPropiedad(e, p); });
+                atributos.forEach(function (a) { lectura.atributos[a] = leerAtributo(e, a); });
+                return lectura;
+            });
+            """;
+
+    private LectorElementos() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Lee las propiedades y atributos solicitados de cada localizador.
+     *
+     * @param driver         El driver de la sesion.
+     * @param motorEspera    El motor de espera de la sesion.
+     * @param locators       Los localizadores a leer, se toma el primer elemento que coincide con cada uno.
+     * @param propiedades    Las propiedades a leer.
+     * @param atributos      Los atributos a leer.
+     * @param tiempoEsperaMs El tiempo maximo en milisegundos para que todos los localizadores existan.
+     * @return Las lecturas en el mismo orden de los localizadores. Si al vencer el tiempo de espera falta algun
+     * elemento, su lectura se devuelve con {@link LecturaElemento#isEncontrado()} en false.
+     */
+    public static Map<By, LecturaElemento> leer(WebDriver driver, MotorEspera motorEspera, List<By> locators,
+                                                List<PropiedadElemento> propiedades, List<String> atributos, long tiempoEsperaMs) {
+        if (locators.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        List<String> nombresPropiedades = propiedades.stream().map(Enum::name).toList();
+        List<Map<By, LecturaElemento>> ultimaLectura = new ArrayList<>(1);
+        ultimaLectura.add(null);
+        try {
+            return motorEspera.esperarMilisegundos(locators.get(0), tiempoEsperaMs, (d, l) -> {
+                Map<By, LecturaElemento> lectura = ejecutar(driver, locators, propiedades, nombresPropiedades, atributos);
+                ultimaLectura.set(0, lectura);
+                return lectura.values().stream().allMatch(LecturaElemento::isEncontrado) ? lectura : null;
+            });
+        } catch (TimeoutException e) {
+            Map<By, LecturaElemento> lectura = ultimaLectura.get(0);
+            log.warn("No se encontraron todos los elementos de la lectura en lote en {} ms: {}", tiempoEsperaMs,
+                    lectura.values().stream().filter(l -> !l.isEncontrado()).map(LecturaElemento::getLocator).toList());
+            return lectura;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<By, LecturaElemento> ejecutar(WebDriver driver, List<By> locators, List<PropiedadElemento> propiedades,
+                                                     List<String> nombresPropiedades, List<String> atributos) {
+        List<Map<String, Object>> objetivos = new ArrayList<>(locators.size());
+        for (By locator : locators) {
+            Map<String, Object> objetivo = new HashMap<>();
+            LocalizadorJS localizador = LocalizadorJS.desde(locator);
+            if (localizador != null) {
+                objetivo.put("tipo", localizador.getTipo());
+                objetivo.put("valor", localizador.getValor());
+            } else {
+                List<WebElement> elements = driver.findElements(locator);
+                if (!elements.isEmpty()) {
+                    objetivo.put("elemento", elements.get(0));
+                }
+            }
+            objetivos.add(objetivo);
+        }
+
+        List<Object> resultados = (List<Object>) ((JavascriptExecutor) driver).executeScript(SCRIPT, objetivos, nombresPropiedades, atributos);
+        Map<By, LecturaElemento> lecturas = new LinkedHashMap<>();
+        for (int i = 0; i < locators.size(); i++) {
+            Map<String, Object> resultado = (Map<String, Object>) resultados.get(i);
+            boolean encontrado = Boolean.TRUE.equals(resultado.get("encontrado"));
+            Map<String, Object> valores = encontrado ? (Map<String, Object>) resultado.get("propiedades") : Map.of();
+            Map<String, Object> valoresAtributos = encontrado ? (Map<String, Object>) resultado.get("atributos") : Map.of();
+
+            EnumMap<PropiedadElemento, Object> lecturaPropiedades = new EnumMap<>(PropiedadElemento.class);
+            for (PropiedadElemento propiedad : propiedades) {
+                lecturaPropiedades.put(propiedad, valores.get(propiedad.name()));
+            }
+            Map<String, String> lecturaAtributos = new LinkedHashMap<>();
+            for (String atributo : atributos) {
+                Object valor = valoresAtributos.get(atributo);
+                lecturaAtributos.put(atributo, valor == null ? null : valor.toString());
+            }
+            lecturas.put(locators.get(i), new LecturaElemento(locators.get(i), encontrado, lecturaPropiedades, lecturaAtributos));
+        }
+        return lecturas;
+    }
+}
@@ -0,0 +1,94 @@
+package com.periferiaitgroup.acciones;
+
+import com.periferiaitgroup.constantes.PropiedadElemento;
+import org.openqa.selenium.By;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Resultado de la lectura en lote de un elemento.
+ * <br/>
+ * Solo contiene las propiedades y atributos solicitados, consultar una propiedad que no se pidio lanza
+ * {@link IllegalStateException} para no confundir un valor ausente con un valor falso o vacio.
+ */
+public class LecturaElemento {
+
+    private final By locator;
+    private final boolean encontrado;
+    private final Map<PropiedadElemento, Object> propiedades;
+    private final Map<String, String> atributos;
+
+    LecturaElemento(By locator, boolean encontrado, EnumMap<PropiedadElemento, Object> propiedades, Map<String, String> atributos) {
+        this.locator = locator;
+        this.encontrado = encontrado;
+        this.propiedades = propiedades;
+        this.atributos = Collections.unmodifiableMap(atributos);
+    }
+
+    public By getLocator() {
+        return locator;
+    }
+
+    /**
+     * @return true si el localizador coincidio con un elemento en la pagina.
+     */
+    public boolean isEncontrado() {
+        return encontrado;
+    }
+
+    public String getTexto() {
+        return (String) propiedad(PropiedadElemento.TEXTO);
+    }
+
+    public boolean isVisible() {
+        return Boolean.TRUE.equals(propiedad(PropiedadElemento.VISIBLE));
+    }
+
+    public boolean isHabilitado() {
+        return Boolean.TRUE.equals(propiedad(PropiedadElemento.HABILITADO));
+    }
+
+    public boolean isSeleccionado() {
+        return Boolean.TRUE.equals(propiedad(PropiedadElemento.SELECCIONADO));
+    }
+
+    public String getTag() {
+        return (String) propiedad(PropiedadElemento.TAG);
+    }
+
+    public String getValor() {
+        return (String) propiedad(PropiedadElemento.VALOR);
+    }
+
+    /**
+     * Obtiene un atributo solicitado en la lectura.
+     *
+     * @param atributo El nombre del atributo.
+     * @return El valor del atributo o null si el elemento no lo tiene o no fue encontrado.
+     * @throws IllegalStateException Si el atributo no fue solicitado.
+     */
+    public String getAtributo(String atributo) {
+        if (!atributos.containsKey(atributo)) {
+            throw new IllegalStateException("El atributo '" + atributo + "' no fue solicitado en la lectura de " + locator);
+        }
+        return atributos.get(atributo);
+    }
+
+    public Map<String, String> getAtributos() {
+        return atributos;
+    }
+
+    private Object propiedad(PropiedadElemento propiedad) {
+        if (!propiedades.containsKey(propiedad)) {
+            throw new IllegalStateException("La propiedad " + propiedad + " no fue solicitada en la lectura de " + locator);
+        }
+        return propiedades.get(propiedad);
+    }
+
+    @Override
+    public String toString() {
+        return locator + " -> encontrado=" + encontrado + ", propiedades=" + propiedades + ", atributos=" + atributos;
+    }
+}
@@ -0,0 +1,116 @@
+package com.periferiaitgroup.acciones;
+
+import com.periferiaitgroup.constantes.ModoPlan;
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plan ordenado de pasos clear, sendKeys y click sobre un formulario, se ejecuta con {@code Periferia.ejecutarPlan}.
+ * <br/>
+ * Ejemplo:
+ * <pre>{@code
+ * Periferia.ejecutarPlan(PlanFormulario.crear()
+ *         .clear(inputNombre)
+ *         .sendKeys(inputNombre, "Ana")
+ *         .sendKeys(inputCorreo, "ana@correo.com", "Formulario diligenciado")
+ *         .click(buttonGuardar));
+ * }</pre>
+ * Solo los pasos que llevan un mensaje de evidencia generan una captura.
+ */
+public class PlanFormulario {
+
+    /**
+     * Tipos de paso de un plan.
+     */
+    public enum TipoPaso {
+        CLEAR, SEND_KEYS, CLICK
+    }
+
+    /**
+     * Paso de un plan.
+     *
+     * @param tipo             El tipo de paso.
+     * @param locator          El localizador del elemento.
+     * @param texto            El texto a enviar, solo para {@link TipoPaso#SEND_KEYS}.
+     * @param mensajeEvidencia El mensaje de evidencia a capturar despues del paso o null si el paso no genera evidencia.
+     */
+    public record Paso(TipoPaso tipo, By locator, String texto, String mensajeEvidencia) {
+    }
+
+    private final List<Paso> pasos = new ArrayList<>();
+    private ModoPlan modo;
+
+    private PlanFormulario() {
+    }
+
+    /**
+     * @return Un plan vacio.
+     */
+    public static PlanFormulario crear() {
+        return new PlanFormulario();
+    }
+
+    public PlanFormulario clear(By locator) {
+        return agregar(TipoPaso.CLEAR, locator, null, null);
+    }
+
+    public PlanFormulario clear(By locator, String mensajeEvidencia) {
+        return agregar(TipoPaso.CLEAR, locator, null, mensajeEvidencia);
+    }
+
+    public PlanFormulario sendKeys(By locator, String texto) {
+        return agregar(TipoPaso.SEND_KEYS, locator, texto, null);
+    }
+
+    public PlanFormulario sendKeys(By locator, String texto, String mensajeEvidencia) {
+        return agregar(TipoPaso.SEND_KEYS, locator, texto, mensajeEvidencia);
+    }
+
+    public PlanFormulario click(By locator) {
+        return agregar(TipoPaso.CLICK, locator, null, null);
+    }
+
+    public PlanFormulario click(By locator, String mensajeEvidencia) {
+        return agregar(TipoPaso.CLICK, locator, null, mensajeEvidencia);
+    }
+
+    /**
+     * Define el modo del plan, si no se define se usa FORMULARIO_MODO de config.properties.
+     *
+     * @param modo El modo de ejecucion.
+     * @return El mismo plan.
+     */
+    public PlanFormulario modo(ModoPlan modo) {
+        this.modo = modo;
+        return this;
+    }
+
+    public List<Paso> getPasos() {
+        return Collections.unmodifiableList(pasos);
+    }
+
+    public ModoPlan getModo() {
+        return modo;
+    }
+
+    /**
+     * @return true si algun paso del plan captura evidencia.
+     */
+    public boolean tieneEvidencia() {
+        return pasos.stream().anyMatch(paso -> paso.mensajeEvidencia() != null);
+    }
+
+    private PlanFormulario agregar(TipoPaso tipo, By locator, String texto, String mensajeEvidencia) {
+        if (locator == null) {
+            throw new IllegalArgumentException("El localizador del paso " + tipo + " no puede ser null");
+        }
+        if (tipo == TipoPaso.SEND_KEYS && texto == null) {
+            throw new IllegalArgumentException("El texto del paso sendKeys sobre " + locator + " no puede ser null");
+        }
+        pasos.add(new Paso(tipo, locator, texto, mensajeEvidencia));
+        return this;
+    }
+}
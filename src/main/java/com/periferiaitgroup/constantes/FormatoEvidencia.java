@@ -0,0 +1,13 @@
+package com.periferiaitgroup.constantes;
+
+/**
+ * Formatos en los que se escribe la evidencia de una prueba, se configuran en EVIDENCIA_FORMATOS separados por coma.
+ */
+public enum FormatoEvidencia {
+    /** Reporte en pdf compuesto con iText durante la ejecucion. */
+    PDF,
+    /** Registro de eventos en eventos.jsonl, un objeto JSON por linea, con las capturas como png en la carpeta. */
+    JSONL,
+    /** Pagina estatica index.html con las capturas como png en la carpeta. */
+    HTML
+}
@@ -0,0 +1,15 @@
+package com.periferiaitgroup.constantes;
+
+/**
+ * Formato con el que se incrustan las capturas en el reporte en pdf.
+ */
+public enum FormatoImagen {
+    /** La captura se incrusta tal como la entrega el navegador, sin remuestreo. */
+    ORIGINAL,
+    /** Remuestreada a la resolucion del recuadro y codificada como png de color verdadero. */
+    PNG,
+    /** Remuestreada y codificada como png con una paleta adaptativa de hasta 256 colores. */
+    PNG_INDEXADO,
+    /** Remuestreada y codificada como jpeg con la calidad de EVIDENCIA_IMAGEN_CALIDAD_JPEG. */
+    JPEG
+}
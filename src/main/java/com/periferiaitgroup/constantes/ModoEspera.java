@@ -0,0 +1,11 @@
+package com.periferiaitgroup.constantes;
+
+/**
+ * Forma en la que el motor de espera comprueba la visibilidad de un elemento.
+ */
+public enum ModoEspera {
+    /** Consulta el elemento por el protocolo de WebDriver en cada intervalo de polling. */
+    POLLING,
+    /** Instala un MutationObserver en el navegador y espera el resultado en un solo viaje de ida y vuelta. */
+    MUTATION_OBSERVER
+}
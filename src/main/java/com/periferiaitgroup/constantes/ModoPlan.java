@@ -0,0 +1,15 @@
+package com.periferiaitgroup.constantes;
+
+/**
+ * Forma en la que se aplican los pasos de llenado de un plan de formulario.
+ */
+public enum ModoPlan {
+    /**
+     * Los campos de texto se llenan con un solo script por tramo, con eventos input y change. No se disparan eventos
+     * de teclado (keydown, keypress, keyup), por lo que no sirve para campos con mascaras, validaciones al soltar la
+     * tecla o autocompletado; se activa por plan con {@code PlanFormulario.modo} o con FORMULARIO_MODO.
+     */
+    SCRIPT,
+    /** Cada paso usa los comandos nativos de WebDriver (eventos de teclado reales) sobre los elementos ya localizados, es el modo por defecto. */
+    EVENTOS_NATIVOS
+}
@@ -0,0 +1,11 @@
+package com.periferiaitgroup.constantes;
+
+/**
+ * Estrategia de intervalos entre evaluaciones del motor de espera.
+ */
+public enum ModoPolling {
+    /** Intervalo constante entre evaluaciones. */
+    FIJO,
+    /** El intervalo inicia corto y se duplica en cada evaluacion fallida hasta el maximo configurado. */
+    BACKOFF
+}
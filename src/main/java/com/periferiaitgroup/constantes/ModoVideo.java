@@ -0,0 +1,13 @@
+package com.periferiaitgroup.constantes;
+
+/**
+ * Forma en la que se graba el video de la evidencia, se configura en VIDEO_MODO.
+ */
+public enum ModoVideo {
+    /** Graba solo el viewport del navegador de la sesion con capturas periodicas, funciona sin pantalla (headless). */
+    NAVEGADOR,
+    /** Graba el escritorio completo con el ScreenRecorder de Monte, requiere una pantalla. */
+    PANTALLA,
+    /** No se graba video. */
+    NINGUNO
+}
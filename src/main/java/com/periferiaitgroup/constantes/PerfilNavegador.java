@@ -0,0 +1,70 @@
+package com.periferiaitgroup.constantes;
+
+import com.periferiaitgroup.utilities.PropertyFileReader;
+
+/**
+ * Perfiles de lanzamiento del navegador, se selecciona con la propiedad NAVEGADOR_PERFIL de config.properties.
+ * El tamaño de la ventana de los perfiles con viewport fijo se toma de NAVEGADOR_VIEWPORT (por defecto 1920x1080).
+ */
+public enum PerfilNavegador {
+    /** Navegador visible y maximizado, comportamiento historico de la libreria. */
+    ESTANDAR(false, false, false, false),
+    /** Navegador sin interfaz grafica con viewport fijo. */
+    HEADLESS(true, false, false, true),
+    /** Navegador visible sin descarga ni decodificacion de imagenes. */
+    SIN_IMAGENES(false, true, false, true),
+    /** Headless, sin imagenes, sin red en segundo plano ni extensiones y con viewport fijo. */
+    LIGERO(true, true, true, true);
+
+    private final boolean headless;
+    private final boolean sinImagenes;
+    private final boolean sinRedSegundoPlano;
+    private final boolean viewportFijo;
+
+    PerfilNavegador(boolean headless, boolean sinImagenes, boolean sinRedSegundoPlano, boolean viewportFijo) {
+        this.headless = headless;
+        this.sinImagenes = sinImagenes;
+        this.sinRedSegundoPlano = sinRedSegundoPlano;
+        this.viewportFijo = viewportFijo;
+    }
+
+    /**
+     * Obtiene el perfil configurado en NAVEGADOR_PERFIL.
+     *
+     * @return El perfil configurado o {@link #ESTANDAR} si no esta definido.
+     * @throws IllegalArgumentException Si el nombre del perfil no es valido.
+     */
+    public static PerfilNavegador configurado() {
+        return valueOf(PropertyFileReader.obtenerPropiedad("NAVEGADOR_PERFIL", ESTANDAR.name()).toUpperCase());
+    }
+
+    /**
+     * Obtiene el ancho y alto del viewport configurado en NAVEGADOR_VIEWPORT con el formato ANCHOxALTO.
+     *
+     * @return Un arreglo con el ancho y el alto en pixeles.
+     */
+    public static int[] viewport() {
+        String[] medidas = PropertyFileReader.obtenerPropiedad("NAVEGADOR_VIEWPORT", "1920x1080").toLowerCase().split("[x,]");
+        try {
+            return new int[]{Integer.parseInt(medidas[0].trim()), Integer.parseInt(medidas[1].trim())};
+        } catch (RuntimeException e) {
+            return new int[]{1920, 1080};
+        }
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public boolean isSinImagenes() {
+        return sinImagenes;
+    }
+
+    public boolean isSinRedSegundoPlano() {
+        return sinRedSegundoPlano;
+    }
+
+    public boolean isViewportFijo() {
+        return viewportFijo;
+    }
+}
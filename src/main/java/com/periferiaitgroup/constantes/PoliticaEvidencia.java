@@ -0,0 +1,16 @@
+package com.periferiaitgroup.constantes;
+
+/**
+ * Politica con la que se toman y escriben las capturas de evidencia, se configura en EVIDENCIA_POLITICA.
+ */
+public enum PoliticaEvidencia {
+    /** Cada paso con mensaje de evidencia se captura y se escribe. */
+    SIEMPRE,
+    /**
+     * Los ultimos EVIDENCIA_PASOS_EN_MEMORIA pasos se conservan en memoria y solo se escriben si la prueba falla;
+     * a partir del fallo todos los pasos se escriben.
+     */
+    SOLO_FALLO,
+    /** Solo se captura una de cada EVIDENCIA_MUESTREO acciones, los errores siempre se capturan. */
+    MUESTREO
+}
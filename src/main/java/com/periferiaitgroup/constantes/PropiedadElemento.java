@@ -0,0 +1,19 @@
+package com.periferiaitgroup.constantes;
+
+/**
+ * Propiedades de un elemento que se pueden leer en lote con {@code Periferia.leerElementos}.
+ */
+public enum PropiedadElemento {
+    /** Texto visible del elemento, vacio si el elemento no es visible (equivalente a getText). */
+    TEXTO,
+    /** Si el elemento es visible (equivalente a isDisplayed). */
+    VISIBLE,
+    /** Si el elemento no esta deshabilitado (equivalente a isEnabled). */
+    HABILITADO,
+    /** Si la casilla, opcion o radio esta seleccionada (equivalente a isSelected). */
+    SELECCIONADO,
+    /** Nombre del tag en minusculas (equivalente a getTagName). */
+    TAG,
+    /** Valor actual de un campo de entrada. */
+    VALOR
+}
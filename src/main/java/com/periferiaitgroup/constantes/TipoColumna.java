@@ -0,0 +1,19 @@
+package com.periferiaitgroup.constantes;
+
+/**
+ * Tipo de una columna de una tabla de datos de prueba, se infiere de los valores al cargar la tabla.
+ */
+public enum TipoColumna {
+    /** Numeros enteros que caben en un int. */
+    ENTERO,
+    /** Numeros enteros que no caben en un int. */
+    LARGO,
+    /** Numeros con decimales. */
+    DECIMAL,
+    /** Valores true o false. */
+    BOOLEANO,
+    /** Fechas validas en formato yyyy-MM-dd, dd/MM/yyyy o M/d/yy, el mismo formato en toda la columna. */
+    FECHA,
+    /** Cualquier otro texto, codificado con un diccionario de valores distintos. */
+    TEXTO
+}
@@ -0,0 +1,139 @@
+package com.periferiaitgroup.driver_manager;
+
+import com.periferiaitgroup.utilities.PropertyFileReader;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache opcional de elementos localizados de una sesion, evita repetir la espera y la busqueda remota cuando las
+ * paginas interactuan varias veces con el mismo {@link By}.
+ * <br/>
+ * Los elementos se guardan por localizador, ventana y frame actual. Antes de devolver un elemento se comprueba que
+ * siga visible; si el elemento quedo obsoleto ({@link StaleElementReferenceException}) se descarta y se vuelve a
+ * buscar de forma transparente. Las navegaciones hechas con {@code Periferia} vacian la cache.
+ * Se habilita con CACHE_ELEMENTOS=true o en tiempo de ejecucion con {@link #setHabilitado(boolean)}.
+ */
+public class CacheElementos {
+
+    private final Map<Clave, WebElement> elementos = new HashMap<>();
+    private final Deque<String> frames = new ArrayDeque<>();
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder obsoletos = new LongAdder();
+    private volatile boolean habilitado = PropertyFileReader.obtenerPropiedad("CACHE_ELEMENTOS", false);
+    private String ventana = "";
+    private String contexto = "";
+
+    /**
+     * Obtiene el elemento guardado para el localizador en la ventana y frame actuales si sigue visible.
+     *
+     * @param locator El localizador del elemento.
+     * @return El elemento guardado o null si no existe, ya no es visible o quedo obsoleto.
+     */
+    public WebElement obtener(By locator) {
+        if (!habilitado) {
+            return null;
+        }
+        Clave clave = new Clave(locator, ventana, contexto);
+        WebElement element = elementos.get(clave);
+        if (element != null) {
+            try {
+                if (element.isDisplayed()) {
+                    aciertos.increment();
+                    return element;
+                }
+            } catch (StaleElementReferenceException e) {
+                obsoletos.increment();
+                elementos.remove(clave);
+            }
+        }
+        fallos.increment();
+        return null;
+    }
+
+    /**
+     * Guarda el elemento localizado en la ventana y frame actuales.
+     *
+     * @param locator El localizador del elemento.
+     * @param element El elemento encontrado.
+     */
+    public void guardar(By locator, WebElement element) {
+        if (habilitado) {
+            elementos.put(new Clave(locator, ventana, contexto), element);
+        }
+    }
+
+    /**
+     * Descarta todos los elementos guardados, se usa cuando la pagina navega.
+     */
+    public void invalidar() {
+        elementos.clear();
+    }
+
+    /**
+     * Registra el cambio a un frame hijo.
+     *
+     * @param frame Descripcion del frame (id, indice o localizador).
+     */
+    public void entrarFrame(String frame) {
+        frames.addLast(frame);
+        contexto = String.join(">", frames);
+    }
+
+    /**
+     * Registra la salida al frame padre.
+     */
+    public void salirFrame() {
+        frames.pollLast();
+        contexto = String.join(">", frames);
+    }
+
+    /**
+     * Registra el cambio de ventana, al cambiar de ventana el contexto vuelve al documento principal.
+     *
+     * @param ventana El identificador de la ventana.
+     */
+    public void cambiarVentana(String ventana) {
+        this.ventana = ventana;
+        frames.clear();
+        contexto = "";
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void setHabilitado(boolean habilitado) {
+        this.habilitado = habilitado;
+        if (!habilitado) {
+            elementos.clear();
+        }
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public long getObsoletos() {
+        return obsoletos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "aciertos=" + getAciertos() + ", fallos=" + getFallos() + ", obsoletos=" + getObsoletos();
+    }
+
+    private record Clave(By locator, String ventana, String contexto) {
+    }
+}
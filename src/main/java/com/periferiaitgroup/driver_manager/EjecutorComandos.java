@@ -0,0 +1,72 @@
+package com.periferiaitgroup.driver_manager;
+
+import com.epam.healenium.SelfHealingDriver;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Ejecutor de comandos de los drivers creados por {@link SeleniumDriver}, serializa los comandos enviados a una misma
+ * sesion desde varios hilos.
+ * <br/>
+ * WebDriver no es seguro entre hilos: la prueba y los hilos auxiliares de la sesion (por ejemplo el grabador de video
+ * del navegador) no deben enviar comandos a la vez. Cada comando toma el bloqueo de la sesion; los hilos auxiliares
+ * usan {@link #siEstaLibre(Supplier)}, que solo ejecuta su trabajo si la prueba no esta enviando ni esperando un
+ * comando, para no retrasar a la prueba.
+ */
+public class EjecutorComandos implements CommandExecutor {
+
+    private final CommandExecutor delegado;
+    private final ReentrantLock bloqueo = new ReentrantLock();
+
+    EjecutorComandos(CommandExecutor delegado) {
+        this.delegado = delegado;
+    }
+
+    /**
+     * Obtiene el ejecutor de comandos de un driver creado por {@link SeleniumDriver}.
+     *
+     * @param driver El driver, puede estar envuelto por Healenium.
+     * @return El ejecutor del driver o null si el driver no serializa sus comandos.
+     */
+    public static EjecutorComandos de(WebDriver driver) {
+        WebDriver delegado = driver instanceof SelfHealingDriver healingDriver ? healingDriver.getDelegate() : driver;
+        if (delegado instanceof RemoteWebDriver remoto && remoto.getCommandExecutor() instanceof EjecutorComandos ejecutor) {
+            return ejecutor;
+        }
+        return null;
+    }
+
+    @Override
+    public Response execute(Command command) throws IOException {
+        bloqueo.lock();
+        try {
+            return delegado.execute(command);
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta el trabajo con los comandos de la sesion bloqueados, solo si ningun otro hilo esta usando la sesion.
+     *
+     * @param trabajo El trabajo a ejecutar, puede enviar comandos a la sesion.
+     * @return El resultado del trabajo o null si la sesion estaba ocupada.
+     */
+    public <T> T siEstaLibre(Supplier<T> trabajo) {
+        if (!bloqueo.tryLock()) {
+            return null;
+        }
+        try {
+            return bloqueo.hasQueuedThreads() ? null : trabajo.get();
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.periferiaitgroup.driver_manager;
+
+import com.epam.healenium.SelfHealingDriver;
+import com.periferiaitgroup.constantes.Navegador;
+import com.periferiaitgroup.utilities.PropertyFileReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool acotado de sesiones de navegador precalentadas, uno por {@link Navegador}.
+ * <br/>
+ * En lugar de cerrar el navegador al finalizar cada prueba, la sesion se limpia (cookies, almacenamiento y ventanas)
+ * y se devuelve al pool para ser reutilizada por la siguiente prueba. Se configura en config.properties:
+ * <ul>
+ *     <li>POOL_DRIVERS_TAMANO: sesiones maximas por navegador, 0 deshabilita el pool (valor por defecto).</li>
+ *     <li>POOL_DRIVERS_PRECALENTADOS: sesiones que se crean en segundo plano la primera vez que se usa un navegador.</li>
+ *     <li>POOL_DRIVERS_MAX_REUSOS: veces que se reutiliza una sesion antes de descartarla.</li>
+ *     <li>POOL_DRIVERS_ESPERA_SEG: segundos que se espera por una sesion libre cuando el pool esta lleno.</li>
+ * </ul>
+ * <b>Limitacion:</b> WebDriver solo permite borrar las cookies y el almacenamiento (localStorage y sessionStorage) del
+ * origen de la pagina abierta al devolver la sesion. Las cookies y el almacenamiento de otros origenes que la prueba
+ * haya visitado (por ejemplo un proveedor de inicio de sesion o una segunda aplicacion) pasan a la siguiente prueba
+ * que use la sesion. Si las pruebas dependen de un estado limpio en varios origenes se debe dejar el pool deshabilitado.
+ */
+public class PoolDrivers {
+
+    private static final int TAMANO_MAXIMO = PropertyFileReader.obtenerPropiedad("POOL_DRIVERS_TAMANO", 0);
+    private static final int PRECALENTADOS = PropertyFileReader.obtenerPropiedad("POOL_DRIVERS_PRECALENTADOS", 0);
+    private static final int MAX_REUSOS = PropertyFileReader.obtenerPropiedad("POOL_DRIVERS_MAX_REUSOS", 20);
+    private static final int ESPERA_SEG = PropertyFileReader.obtenerPropiedad("POOL_DRIVERS_ESPERA_SEG", 120);
+
+    private static final Map<Navegador, PoolNavegador> POOLS = new ConcurrentHashMap<>();
+    private static final ExecutorService PRECALENTADOR = Executors.newCachedThreadPool(tarea -> {
+        Thread hilo = new Thread(tarea, "pool-drivers-precalentador");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    protected static Logger log = LogManager.getLogger(PoolDrivers.class);
+
+    private PoolDrivers() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Indica si el pool esta habilitado en la configuracion.
+     *
+     * @return true si POOL_DRIVERS_TAMANO es mayor a 0.
+     */
+    public static boolean habilitado() {
+        return TAMANO_MAXIMO > 0;
+    }
+
+    /**
+     * Crea en segundo plano sesiones del navegador indicado hasta completar la cantidad solicitada de sesiones libres.
+     * Util para invocarlo desde un {@code @BeforeSuite} antes de que inicien las pruebas.
+     *
+     * @param navegador El navegador a precalentar.
+     * @param cantidad  La cantidad de sesiones libres deseada, nunca supera POOL_DRIVERS_TAMANO.
+     */
+    public static void precalentar(Navegador navegador, int cantidad) {
+        if (!habilitado()) {
+            return;
+        }
+        pool(navegador).precalentar(cantidad);
+    }
+
+    /**
+     * Obtiene una sesion libre del pool o crea una nueva si aun hay cupo.
+     *
+     * @param navegador El navegador de la sesion.
+     * @return La sesion prestada, debe devolverse con {@link #devolver(DriverAgrupado)}.
+     * @throws WebDriverException Si no hay sesiones libres dentro del tiempo de espera o no se pudo crear el driver.
+     */
+    static DriverAgrupado obtener(Navegador navegador) {
+        return pool(navegador).obtener();
+    }
+
+    /**
+     * Limpia la sesion y la devuelve al pool. Si la limpieza falla o la sesion alcanzo el maximo de reusos se cierra.
+     *
+     * @param agrupado La sesion prestada.
+     */
+    static void devolver(DriverAgrupado agrupado) {
+        pool(agrupado.navegador).devolver(agrupado);
+    }
+
+    /**
+     * Cierra todas las sesiones libres de todos los pools.
+     */
+    public static void cerrarTodo() {
+        POOLS.values().forEach(PoolNavegador::cerrarLibres);
+    }
+
+    private static PoolNavegador pool(Navegador navegador) {
+        return POOLS.computeIfAbsent(navegador, clave -> {
+            PoolNavegador nuevo = new PoolNavegador(clave);
+            if (PRECALENTADOS > 0) {
+                nuevo.precalentar(PRECALENTADOS);
+            }
+            return nuevo;
+        });
+    }
+
+    /**
+     * Sesion administrada por el pool junto con la cantidad de veces que ha sido prestada.
+     */
+    static class DriverAgrupado {
+        private final Navegador navegador;
+        private final SelfHealingDriver driver;
+        private int usos;
+
+        private DriverAgrupado(Navegador navegador, SelfHealingDriver driver) {
+            this.navegador = navegador;
+            this.driver = driver;
+        }
+
+        SelfHealingDriver getDriver() {
+            return driver;
+        }
+    }
+
+    private static class PoolNavegador {
+        private final Navegador navegador;
+        private final Semaphore cupos = new Semaphore(TAMANO_MAXIMO, true);
+        private final ConcurrentLinkedDeque<DriverAgrupado> libres = new ConcurrentLinkedDeque<>();
+
+        private PoolNavegador(Navegador navegador) {
+            this.navegador = navegador;
+        }
+
+        private DriverAgrupado obtener() {
+            try {
+                if (!cupos.tryAcquire(ESPERA_SEG, TimeUnit.SECONDS)) {
+                    throw new WebDriverException("No hay sesiones libres de " + navegador + " despues de " + ESPERA_SEG + " seg");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException("Se interrumpio la espera de una sesion de " + navegador, e);
+            }
+
+            try {
+                DriverAgrupado agrupado;
+                while ((agrupado = libres.pollFirst()) != null) {
+                    if (estaSana(agrupado)) {
+                        agrupado.usos++;
+                        log.debug("Sesion de {} reutilizada, uso numero {}", navegador, agrupado.usos);
+                        return agrupado;
+                    }
+                    descartar(agrupado, "no respondio a la verificacion de salud");
+                }
+
+                agrupado = crear();
+                agrupado.usos++;
+                return agrupado;
+            } catch (RuntimeException e) {
+                cupos.release();
+                throw e;
+            }
+        }
+
+        private void devolver(DriverAgrupado agrupado) {
+            try {
+                if (agrupado.usos >= MAX_REUSOS) {
+                    descartar(agrupado, "alcanzo el maximo de " + MAX_REUSOS + " reusos");
+                } else if (limpiar(agrupado)) {
+                    libres.offerFirst(agrupado);
+                } else {
+                    descartar(agrupado, "no se pudo limpiar");
+                }
+            } finally {
+                cupos.release();
+            }
+        }
+
+        private void precalentar(int cantidad) {
+            int objetivo = Math.min(cantidad, TAMANO_MAXIMO);
+            for (int i = libres.size(); i < objetivo; i++) {
+                PRECALENTADOR.execute(() -> {
+                    if (!cupos.tryAcquire()) {
+                        return;
+                    }
+                    try {
+                        libres.offerLast(crear());
+                    } catch (WebDriverException e) {
+                        log.error("No fue posible precalentar una sesion de {}: {}", navegador, e.getMessage());
+                    } finally {
+                        cupos.release();
+                    }
+                });
+            }
+        }
+
+        private DriverAgrupado crear() {
+            SelfHealingDriver driver = SeleniumDriver.initDriver(navegador);
+            if (driver == null) {
+                throw new WebDriverException("No se pudo crear el driver para el navegador " + navegador);
+            }
+            log.debug("Nueva sesion de {} creada para el pool", navegador);
+            return new DriverAgrupado(navegador, driver);
+        }
+
+        private boolean estaSana(DriverAgrupado agrupado) {
+            try {
+                agrupado.driver.getWindowHandle();
+                return true;
+            } catch (WebDriverException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Cierra las ventanas secundarias y borra las cookies y el almacenamiento del origen actual, los demas origenes
+         * visitados no se limpian (ver la limitacion en la documentacion de la clase).
+         */
+        private boolean limpiar(DriverAgrupado agrupado) {
+            WebDriver driver = agrupado.driver.getDelegate();
+            try {
+                Set<String> ventanas = driver.getWindowHandles();
+                String principal = ventanas.iterator().next();
+                for (String ventana : ventanas) {
+                    if (!ventana.equals(principal)) {
+                        driver.switchTo().window(ventana).close();
+                    }
+                }
+                driver.switchTo().window(principal);
+                driver.manage().deleteAllCookies();
+                try {
+                    ((JavascriptExecutor) driver).executeScript("window.localStorage.clear(); window.sessionStorage.clear();");
+                } catch (WebDriverException e) {
+                    log.debug("No se pudo limpiar el almacenamiento de la pagina actual: {}", e.getMessage());
+                }
+                driver.get("about:blank");
+                return true;
+            } catch (WebDriverException e) {
+                log.warn("Falla al limpiar la sesion de {}: {}", navegador, e.getMessage());
+                return false;
+            }
+        }
+
+        private void descartar(DriverAgrupado agrupado, String motivo) {
+            log.debug("Sesion de {} descartada: {}", navegador, motivo);
+            try {
+                agrupado.driver.quit();
+            } catch (WebDriverException e) {
+                log.warn("Falla al cerrar la sesion descartada de {}: {}", navegador, e.getMessage());
+            }
+        }
+
+        private void cerrarLibres() {
+            DriverAgrupado agrupado;
+            while ((agrupado = libres.pollFirst()) != null) {
+                descartar(agrupado, "cierre del pool");
+            }
+        }
+    }
+}
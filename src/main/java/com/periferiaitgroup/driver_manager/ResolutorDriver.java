@@ -0,0 +1,223 @@
+package com.periferiaitgroup.driver_manager;
+
+import com.periferiaitgroup.constantes.Navegador;
+import com.periferiaitgroup.utilities.PropertyFileReader;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resuelve el binario del driver de cada navegador una sola vez por JVM.
+ * <br/>
+ * El orden de busqueda es: el directorio local DRIVERS_DIRECTORIO_LOCAL (precargado para agentes sin internet),
+ * el manifiesto en disco DRIVERS_MANIFIESTO con las rutas resueltas en ejecuciones anteriores de la maquina y por
+ * ultimo WebDriverManager. Con DRIVERS_MODO_OFFLINE=true nunca se consulta WebDriverManager.
+ * La ruta resuelta se publica en la propiedad del sistema que usa Selenium (por ejemplo webdriver.chrome.driver),
+ * por lo que la creacion de cada sesion ya no incluye este trabajo.
+ */
+public class ResolutorDriver {
+
+    private static final String DIRECTORIO_LOCAL = PropertyFileReader.obtenerPropiedad("DRIVERS_DIRECTORIO_LOCAL", "");
+    private static final boolean MODO_OFFLINE = PropertyFileReader.obtenerPropiedad("DRIVERS_MODO_OFFLINE", false);
+    private static final Path MANIFIESTO = Paths.get(PropertyFileReader.obtenerPropiedad("DRIVERS_MANIFIESTO",
+            Paths.get(System.getProperty("user.home"), ".cache", "library-qa", "drivers.properties").toString()));
+
+    private static final Map<Navegador, Path> RESUELTOS = new ConcurrentHashMap<>();
+    private static final Map<Navegador, Long> TIEMPOS_RESOLUCION = new ConcurrentHashMap<>();
+    protected static Logger log = LogManager.getLogger(ResolutorDriver.class);
+
+    private ResolutorDriver() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Obtiene la ruta del driver del navegador, resolviendola solo la primera vez que se solicita en la JVM.
+     *
+     * @param navegador El navegador del que se necesita el driver.
+     * @return La ruta del binario del driver.
+     * @throws WebDriverException Si el driver no se encuentra en modo offline o WebDriverManager no lo pudo resolver.
+     */
+    public static Path resolver(Navegador navegador) {
+        return RESUELTOS.computeIfAbsent(navegador, ResolutorDriver::resolverDriver);
+    }
+
+    /**
+     * Descarta la ruta resuelta del navegador en memoria y en el manifiesto, por ejemplo cuando el navegador se
+     * actualizo y el driver guardado ya no es compatible.
+     *
+     * @param navegador El navegador cuyo driver se debe volver a resolver.
+     */
+    public static void invalidar(Navegador navegador) {
+        RESUELTOS.remove(navegador);
+        synchronized (ResolutorDriver.class) {
+            Properties manifiesto = leerManifiesto();
+            if (manifiesto.remove(navegador + ".ruta") != null) {
+                manifiesto.remove(navegador + ".tamano");
+                manifiesto.remove(navegador + ".modificado");
+                guardarManifiesto(manifiesto);
+            }
+        }
+        log.info("Se invalido el driver resuelto para {}", navegador);
+    }
+
+    /**
+     * Obtiene el tiempo que tomo resolver el driver del navegador.
+     *
+     * @param navegador El navegador consultado.
+     * @return El tiempo en milisegundos o -1 si el driver aun no se ha resuelto.
+     */
+    public static long tiempoResolucion(Navegador navegador) {
+        return TIEMPOS_RESOLUCION.getOrDefault(navegador, -1L);
+    }
+
+    private static Path resolverDriver(Navegador navegador) {
+        long inicio = System.nanoTime();
+        String origen;
+
+        Path ruta = buscarEnDirectorioLocal(navegador);
+        if (ruta != null) {
+            origen = "directorio local";
+        } else if (MODO_OFFLINE) {
+            throw new WebDriverException("Modo offline: no se encontro " + nombreBinario(navegador) + " en '" + DIRECTORIO_LOCAL + "'");
+        } else {
+            ruta = buscarEnManifiesto(navegador);
+            if (ruta != null) {
+                origen = "manifiesto";
+            } else {
+                ruta = resolverConWebDriverManager(navegador);
+                origen = "WebDriverManager";
+            }
+        }
+
+        System.setProperty(propiedadSistema(navegador), ruta.toString());
+
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+        TIEMPOS_RESOLUCION.put(navegador, milisegundos);
+        log.info("Driver de {} resuelto desde {} en {} ms: {}", navegador, origen, milisegundos, ruta);
+        return ruta;
+    }
+
+    private static Path buscarEnDirectorioLocal(Navegador navegador) {
+        if (DIRECTORIO_LOCAL.isEmpty()) {
+            return null;
+        }
+        for (String nombre : new String[]{nombreBinario(navegador), nombreBinario(navegador) + ".exe"}) {
+            Path candidato = Paths.get(DIRECTORIO_LOCAL, nombre);
+            if (esEjecutable(candidato)) {
+                return candidato;
+            }
+        }
+        return null;
+    }
+
+    private static Path buscarEnManifiesto(Navegador navegador) {
+        Properties manifiesto;
+        synchronized (ResolutorDriver.class) {
+            manifiesto = leerManifiesto();
+        }
+        String ruta = manifiesto.getProperty(navegador + ".ruta");
+        if (ruta == null) {
+            return null;
+        }
+
+        Path candidato = Paths.get(ruta);
+        try {
+            boolean vigente = esEjecutable(candidato)
+                    && String.valueOf(Files.size(candidato)).equals(manifiesto.getProperty(navegador + ".tamano"))
+                    && String.valueOf(Files.getLastModifiedTime(candidato).toMillis()).equals(manifiesto.getProperty(navegador + ".modificado"));
+            if (vigente) {
+                return candidato;
+            }
+        } catch (IOException e) {
+            log.debug("No se pudo verificar el driver del manifiesto {}: {}", candidato, e.getMessage());
+        }
+        log.info("El driver de {} registrado en el manifiesto ya no es valido: {}", navegador, candidato);
+        return null;
+    }
+
+    private static Path resolverConWebDriverManager(Navegador navegador) {
+        WebDriverManager manager = switch (navegador) {
+            case CHROME -> WebDriverManager.chromedriver();
+            case FIREFOX -> WebDriverManager.firefoxdriver();
+            case EDGE -> WebDriverManager.edgedriver();
+        };
+        manager.setup();
+
+        String descargado = manager.getDownloadedDriverPath();
+        if (descargado == null) {
+            throw new WebDriverException("WebDriverManager no pudo resolver el driver de " + navegador);
+        }
+        Path ruta = Paths.get(descargado);
+
+        synchronized (ResolutorDriver.class) {
+            try {
+                Properties manifiesto = leerManifiesto();
+                manifiesto.setProperty(navegador + ".ruta", ruta.toString());
+                manifiesto.setProperty(navegador + ".tamano", String.valueOf(Files.size(ruta)));
+                manifiesto.setProperty(navegador + ".modificado", String.valueOf(Files.getLastModifiedTime(ruta).toMillis()));
+                guardarManifiesto(manifiesto);
+            } catch (IOException e) {
+                log.warn("No se pudo registrar el driver de {} en el manifiesto: {}", navegador, e.getMessage());
+            }
+        }
+        return ruta;
+    }
+
+    private static Properties leerManifiesto() {
+        Properties manifiesto = new Properties();
+        if (Files.exists(MANIFIESTO)) {
+            try (InputStream entrada = Files.newInputStream(MANIFIESTO)) {
+                manifiesto.load(entrada);
+            } catch (IOException e) {
+                log.warn("No se pudo leer el manifiesto de drivers {}: {}", MANIFIESTO, e.getMessage());
+            }
+        }
+        return manifiesto;
+    }
+
+    private static void guardarManifiesto(Properties manifiesto) {
+        try {
+            Path directorio = MANIFIESTO.toAbsolutePath().getParent();
+            Files.createDirectories(directorio);
+            Path temporal = Files.createTempFile(directorio, "drivers", ".tmp");
+            try (OutputStream salida = Files.newOutputStream(temporal)) {
+                manifiesto.store(salida, "Drivers resueltos por Library-QA");
+            }
+            Files.move(temporal, MANIFIESTO, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar el manifiesto de drivers {}: {}", MANIFIESTO, e.getMessage());
+        }
+    }
+
+    private static boolean esEjecutable(Path ruta) {
+        return Files.isRegularFile(ruta) && Files.isExecutable(ruta);
+    }
+
+    private static String nombreBinario(Navegador navegador) {
+        return switch (navegador) {
+            case CHROME -> "chromedriver";
+            case FIREFOX -> "geckodriver";
+            case EDGE -> "msedgedriver";
+        };
+    }
+
+    private static String propiedadSistema(Navegador navegador) {
+        return switch (navegador) {
+            case CHROME -> "webdriver.chrome.driver";
+            case FIREFOX -> "webdriver.gecko.driver";
+            case EDGE -> "webdriver.edge.driver";
+        };
+    }
+}
@@ -2,67 +2,188 @@ package com.periferiaitgroup.driver_manager;
 
 import com.epam.healenium.SelfHealingDriver;
 import com.periferiaitgroup.constantes.Navegador;
-import io.github.bonigarcia.wdm.WebDriverManager;
+import com.periferiaitgroup.constantes.PerfilNavegador;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.openqa.selenium.SessionNotCreatedException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
 public class SeleniumDriver {
-    protected static SelfHealingDriver healingDriver;
+    protected static Logger log = LogManager.getLogger(SeleniumDriver.class);
 
     private SeleniumDriver() {
         throw new IllegalStateException("Utility class");
     }
 
+    /**
+     * Crea el controlador del navegador con el perfil configurado en NAVEGADOR_PERFIL.
+     *
+     * @param navegador El navegador que se utilizara.
+     * @return El controlador creado.
+     */
     public static @Nullable SelfHealingDriver initDriver(@NotNull Navegador navegador) {
+        return initDriver(navegador, PerfilNavegador.configurado());
+    }
+
+    /**
+     * Crea el controlador del navegador con el perfil de lanzamiento indicado.
+     *
+     * @param navegador El navegador que se utilizara.
+     * @param perfil    El perfil de lanzamiento del navegador.
+     * @return El controlador creado.
+     */
+    public static @Nullable SelfHealingDriver initDriver(@NotNull Navegador navegador, @NotNull PerfilNavegador perfil) {
         switch (navegador) {
             case CHROME -> {
-                return useChrome();
+                return useChrome(perfil);
             }
             case FIREFOX -> {
-                return useFirefox();
+                return useFirefox(perfil);
             }
             case EDGE -> {
-                return useEdge();
+                return useEdge(perfil);
             }
         }
         return null;
     }
 
-    private static SelfHealingDriver useChrome() {
+    private static SelfHealingDriver useChrome(PerfilNavegador perfil) {
         ChromeOptions options = new ChromeOptions();
-        options.addArguments("--windows-size=1920,1080");
-        options.addArguments("--start-maximized");
-        options.addArguments("--disable-dev-shm-usage");
-        options.addArguments("--no-sandbox");
+        options.addArguments(argumentosChromium(perfil));
         options.addArguments("--ignore-certificate-errors");
+        if (perfil.isSinImagenes()) {
+            options.setExperimentalOption("prefs", preferenciasChromium(perfil));
+        }
 
-        WebDriver delegate = WebDriverManager.chromedriver().capabilities(options).create();
-        healingDriver = SelfHealingDriver.create(delegate);
-
-        return healingDriver;
+        WebDriver delegate = crearDelegado(Navegador.CHROME, () -> new ChromeDriver(options) {
+            {
+                setCommandExecutor(new EjecutorComandos(getCommandExecutor()));
+            }
+        });
+        return SelfHealingDriver.create(delegate);
     }
 
-    private static SelfHealingDriver useFirefox() {
+    private static SelfHealingDriver useFirefox(PerfilNavegador perfil) {
         FirefoxOptions options = new FirefoxOptions();
-        options.addArguments("--windows-size=1920,1080");
-        options.addArguments("--start-maximized");
-        options.addArguments("--disable-dev-shm-usage");
-        options.addArguments("--no-sandbox");
+        if (perfil.isHeadless()) {
+            options.addArguments("-headless");
+        }
+        if (perfil.isViewportFijo()) {
+            int[] viewport = PerfilNavegador.viewport();
+            options.addArguments("--width=" + viewport[0], "--height=" + viewport[1]);
+        }
+        if (perfil.isSinImagenes()) {
+            options.addPreference("permissions.default.image", 2);
+        }
+        if (perfil.isSinRedSegundoPlano()) {
+            options.addPreference("app.update.enabled", false);
+            options.addPreference("extensions.update.enabled", false);
+            options.addPreference("network.prefetch-next", false);
+            options.addPreference("browser.safebrowsing.malware.enabled", false);
+            options.addPreference("browser.safebrowsing.phishing.enabled", false);
+            options.addPreference("datareporting.policy.dataSubmissionEnabled", false);
+            options.addPreference("toolkit.telemetry.enabled", false);
+        }
 
-        WebDriver delegate = WebDriverManager.firefoxdriver().capabilities(options).create();
-        healingDriver = SelfHealingDriver.create(delegate);
-        return healingDriver;
+        WebDriver delegate = crearDelegado(Navegador.FIREFOX, () -> new FirefoxDriver(options) {
+            {
+                setCommandExecutor(new EjecutorComandos(getCommandExecutor()));
+            }
+        });
+        if (!perfil.isViewportFijo() && !perfil.isHeadless()) {
+            delegate.manage().window().maximize();
+        }
+        return SelfHealingDriver.create(delegate);
     }
 
-    private static SelfHealingDriver useEdge() {
+    private static SelfHealingDriver useEdge(PerfilNavegador perfil) {
         EdgeOptions options = new EdgeOptions();
+        Map<String, Object> edgeOptions = new HashMap<>();
+        edgeOptions.put("args", argumentosChromium(perfil));
+        if (perfil.isSinImagenes()) {
+            edgeOptions.put("prefs", preferenciasChromium(perfil));
+        }
+        options.setCapability("ms:edgeOptions", edgeOptions);
 
-        WebDriver delegate = WebDriverManager.edgedriver().capabilities(options).create();
-        healingDriver = SelfHealingDriver.create(delegate);
-        return healingDriver;
+        WebDriver delegate = crearDelegado(Navegador.EDGE, () -> new EdgeDriver(options) {
+            {
+                setCommandExecutor(new EjecutorComandos(getCommandExecutor()));
+            }
+        });
+        return SelfHealingDriver.create(delegate);
+    }
+
+    /**
+     * Argumentos de linea de comandos compartidos por los navegadores basados en Chromium (Chrome y Edge).
+     */
+    private static List<String> argumentosChromium(PerfilNavegador perfil) {
+        List<String> argumentos = new ArrayList<>();
+        argumentos.add("--disable-dev-shm-usage");
+        argumentos.add("--no-sandbox");
+        if (perfil.isViewportFijo()) {
+            int[] viewport = PerfilNavegador.viewport();
+            argumentos.add("--window-size=" + viewport[0] + "," + viewport[1]);
+        } else {
+            argumentos.add("--start-maximized");
+        }
+        if (perfil.isHeadless()) {
+            argumentos.add("--headless=new");
+            argumentos.add("--disable-gpu");
+            argumentos.add("--hide-scrollbars");
+        }
+        if (perfil.isSinImagenes()) {
+            argumentos.add("--blink-settings=imagesEnabled=false");
+        }
+        if (perfil.isSinRedSegundoPlano()) {
+            argumentos.add("--disable-background-networking");
+            argumentos.add("--disable-component-update");
+            argumentos.add("--disable-default-apps");
+            argumentos.add("--disable-extensions");
+            argumentos.add("--disable-sync");
+            argumentos.add("--metrics-recording-only");
+            argumentos.add("--no-first-run");
+        }
+        return argumentos;
+    }
+
+    private static Map<String, Object> preferenciasChromium(PerfilNavegador perfil) {
+        Map<String, Object> preferencias = new HashMap<>();
+        if (perfil.isSinImagenes()) {
+            preferencias.put("profile.managed_default_content_settings.images", 2);
+        }
+        return preferencias;
+    }
+
+    /**
+     * Crea el driver nativo usando el binario resuelto por {@link ResolutorDriver}. Si la sesion no se puede crear,
+     * por ejemplo porque el navegador se actualizo, el driver se vuelve a resolver una sola vez.
+     * <br/>
+     * Los constructores instalan un {@link EjecutorComandos} para que los hilos auxiliares de la sesion no envien
+     * comandos a la vez que la prueba.
+     */
+    private static WebDriver crearDelegado(Navegador navegador, Supplier<WebDriver> constructor) {
+        ResolutorDriver.resolver(navegador);
+        try {
+            return constructor.get();
+        } catch (SessionNotCreatedException e) {
+            log.warn("No se pudo crear la sesion de {} con el driver resuelto, se resolvera nuevamente: {}", navegador, e.getMessage());
+            ResolutorDriver.invalidar(navegador);
+            ResolutorDriver.resolver(navegador);
+            return constructor.get();
+        }
     }
 }
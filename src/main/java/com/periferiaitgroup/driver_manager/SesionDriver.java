@@ -0,0 +1,189 @@
+package com.periferiaitgroup.driver_manager;
+
+import com.epam.healenium.SelfHealingDriver;
+import com.periferiaitgroup.constantes.Navegador;
+import com.periferiaitgroup.espera.MotorEspera;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sesion de navegador confinada al hilo que la inicia.
+ * <br/>
+ * Cada hilo de TestNG (por ejemplo con {@code parallel="methods"}) obtiene su propio {@link SelfHealingDriver},
+ * de esta forma la API estatica de {@code Periferia} puede ser usada por varios navegadores a la vez en la misma JVM.
+ * Cuando {@link PoolDrivers} esta habilitado, el driver se toma prestado del pool y se devuelve al cerrar la sesion.
+ */
+public class SesionDriver {
+
+    private static final ThreadLocal<SesionDriver> SESION_ACTUAL = new ThreadLocal<>();
+    private static final Set<CompletableFuture<Void>> CIERRES_PENDIENTES = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService CIERRE = Executors.newCachedThreadPool(tarea -> {
+        Thread hilo = new Thread(tarea, "sesion-driver-cierre");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    protected static Logger log = LogManager.getLogger(SesionDriver.class);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            esperarCierres(60);
+            PoolDrivers.cerrarTodo();
+        }, "sesion-driver-apagado"));
+    }
+
+    private final SelfHealingDriver driver;
+    private final Navegador navegador;
+    private final PoolDrivers.DriverAgrupado agrupado;
+    private final MotorEspera motorEspera;
+    private final CacheElementos cacheElementos = new CacheElementos();
+
+    private SesionDriver(SelfHealingDriver driver, Navegador navegador, PoolDrivers.DriverAgrupado agrupado) {
+        this.driver = driver;
+        this.navegador = navegador;
+        this.agrupado = agrupado;
+        this.motorEspera = new MotorEspera(driver);
+    }
+
+    /**
+     * Inicia una sesion para el hilo actual. Si el hilo ya tenia una sesion abierta, esta se cierra primero.
+     *
+     * @param navegador El navegador que se utilizara en la sesion.
+     * @return La sesion creada para el hilo actual.
+     * @throws WebDriverException Si no fue posible crear el controlador.
+     */
+    public static SesionDriver iniciar(Navegador navegador) {
+        if (SESION_ACTUAL.get() != null) {
+            log.warn("El hilo {} ya tenia una sesion abierta, se cerrara antes de iniciar una nueva", Thread.currentThread().getName());
+            cerrar();
+        }
+
+        SesionDriver sesion;
+        if (PoolDrivers.habilitado()) {
+            PoolDrivers.DriverAgrupado agrupado = PoolDrivers.obtener(navegador);
+            sesion = new SesionDriver(agrupado.getDriver(), navegador, agrupado);
+        } else {
+            SelfHealingDriver driver = SeleniumDriver.initDriver(navegador);
+            if (driver == null) {
+                throw new WebDriverException("No se pudo crear el driver para el navegador " + navegador);
+            }
+            sesion = new SesionDriver(driver, navegador, null);
+        }
+        SESION_ACTUAL.set(sesion);
+        log.debug("Sesion iniciada en el hilo {} con el navegador {}", Thread.currentThread().getName(), navegador);
+        return sesion;
+    }
+
+    /**
+     * Obtiene la sesion del hilo actual.
+     *
+     * @return La sesion del hilo actual o null si el hilo no ha iniciado ninguna.
+     */
+    public static SesionDriver actual() {
+        return SESION_ACTUAL.get();
+    }
+
+    /**
+     * Obtiene el controlador de la sesion del hilo actual.
+     *
+     * @return El controlador del hilo actual o null si el hilo no ha iniciado ninguna sesion.
+     */
+    public static SelfHealingDriver driverActual() {
+        SesionDriver sesion = SESION_ACTUAL.get();
+        return sesion == null ? null : sesion.driver;
+    }
+
+    /**
+     * Cierra la sesion del hilo actual, si existe, y la desvincula del hilo.
+     * Si la sesion pertenece al pool se limpia y se devuelve en lugar de cerrar el navegador.
+     */
+    public static void cerrar() {
+        SesionDriver sesion = SESION_ACTUAL.get();
+        SESION_ACTUAL.remove();
+        if (sesion != null) {
+            sesion.liberar();
+        }
+    }
+
+    /**
+     * Desvincula la sesion del hilo actual y la cierra (o la devuelve al pool) en segundo plano, de esta forma
+     * la siguiente prueba del hilo puede iniciar su sesion mientras el navegador anterior termina de cerrarse.
+     */
+    public static void cerrarAsincrono() {
+        SesionDriver sesion = SESION_ACTUAL.get();
+        SESION_ACTUAL.remove();
+        if (sesion == null) {
+            return;
+        }
+
+        CompletableFuture<Void> cierre = CompletableFuture.runAsync(sesion::liberar, CIERRE);
+        CIERRES_PENDIENTES.add(cierre);
+        cierre.whenComplete((resultado, error) -> {
+            CIERRES_PENDIENTES.remove(cierre);
+            if (error != null) {
+                log.error("Falla al cerrar la sesion de {} en segundo plano: {}", sesion.navegador, error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Espera a que terminen los cierres de sesion que se ejecutan en segundo plano.
+     *
+     * @param segundos Tiempo maximo de espera en segundos.
+     * @return true si todos los cierres terminaron dentro del tiempo de espera.
+     */
+    public static boolean esperarCierres(long segundos) {
+        CompletableFuture<Void> todos = CompletableFuture.allOf(CIERRES_PENDIENTES.toArray(CompletableFuture<?>[]::new));
+        try {
+            todos.get(segundos, TimeUnit.SECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (TimeoutException e) {
+            log.warn("Quedaron {} cierres de sesion pendientes despues de {} seg", CIERRES_PENDIENTES.size(), segundos);
+            return false;
+        }
+    }
+
+    private void liberar() {
+        if (cacheElementos.isHabilitado()) {
+            log.debug("Cache de elementos de la sesion de {}: {}", navegador, cacheElementos);
+        }
+        cacheElementos.invalidar();
+        if (agrupado != null) {
+            PoolDrivers.devolver(agrupado);
+            log.debug("Sesion de {} devuelta al pool", navegador);
+        } else {
+            driver.quit();
+            log.debug("Sesion de {} cerrada", navegador);
+        }
+    }
+
+    public SelfHealingDriver getDriver() {
+        return driver;
+    }
+
+    public Navegador getNavegador() {
+        return navegador;
+    }
+
+    public MotorEspera getMotorEspera() {
+        return motorEspera;
+    }
+
+    public CacheElementos getCacheElementos() {
+        return cacheElementos;
+    }
+}
@@ -0,0 +1,62 @@
+package com.periferiaitgroup.espera;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+/**
+ * Condicion que evalua el {@link MotorEspera} sobre un localizador.
+ * <br/>
+ * Las condiciones no guardan estado, por lo que las constantes de esta interfaz se reutilizan en todas las esperas
+ * sin crear objetos nuevos en cada llamada.
+ *
+ * @param <T> El tipo de valor que devuelve la condicion cuando se cumple.
+ */
+@FunctionalInterface
+public interface CondicionEspera<T> {
+
+    /**
+     * El elemento existe y es visible.
+     */
+    CondicionEspera<WebElement> VISIBLE = (driver, locator) -> {
+        try {
+            WebElement element = driver.findElement(locator);
+            return element.isDisplayed() ? element : null;
+        } catch (NoSuchElementException | StaleElementReferenceException e) {
+            return null;
+        }
+    };
+
+    /**
+     * Existe al menos un elemento y todos los elementos encontrados son visibles.
+     */
+    CondicionEspera<List<WebElement>> TODOS_VISIBLES = (driver, locator) -> {
+        try {
+            List<WebElement> elements = driver.findElements(locator);
+            if (elements.isEmpty()) {
+                return null;
+            }
+            for (WebElement element : elements) {
+                if (!element.isDisplayed()) {
+                    return null;
+                }
+            }
+            return elements;
+        } catch (StaleElementReferenceException e) {
+            return null;
+        }
+    };
+
+    /**
+     * Evalua la condicion una sola vez.
+     *
+     * @param driver  El driver sobre el que se evalua la condicion.
+     * @param locator El localizador del elemento.
+     * @return El valor de la condicion o null si aun no se cumple.
+     */
+    T evaluar(WebDriver driver, By locator);
+}
@@ -0,0 +1,82 @@
+package com.periferiaitgroup.espera;
+
+import com.periferiaitgroup.utilities.PropertyFileReader;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Espera la visibilidad de un elemento dentro del navegador con un MutationObserver.
+ * <br/>
+ * El script asincrono revisa el DOM de inmediato y luego en cada mutacion (con una revision periodica de respaldo
+ * para cambios de estilo que no generan mutaciones), por lo que cada espera cuesta un solo viaje de ida y vuelta
+ * sin importar cuanto tarde la pagina en mostrar el elemento.
+ */
+class EsperaMutationObserver {
+
+    private static final long MARGEN_SCRIPT_MS = 5_000;
+    /** Tiempo maximo de los scripts asincronos de la sesion, el valor por defecto de W3C si no se configura. */
+    private static final long SCRIPT_TIMEOUT_MS = PropertyFileReader.obtenerPropiedad("ESPERA_SCRIPT_TIMEOUT_MS", 30_000);
+
+    private static final String SCRIPT = LocalizadorJS.FUNCIONES + """
+            var tipo = arguments[0], valor = arguments[1], limite = arguments[2];
+            var listo = arguments[arguments.length - 1];
+            function primeroVisible() {
+                var nodos = buscar(tipo, valor);
+                for (var i = 0; i < nodos.length; i++) { if (visible(nodos[i])) { return nodos[i]; } }
+                return null;
+            }
+            var encontrado = primeroVisible();
+            if (encontrado) { listo(encontrado); return; }
+            var terminado = false, observador, revision, vencimiento;
+            function terminar(resultado) {
+                if (terminado) { return; }
+                terminado = true;
+                observador.disconnect();
+                clearInterval(revision);
+                clearTimeout(vencimiento);
+                listo(resultado);
+            }
+            function revisar() {
+                var elemento = primeroVisible();
+                if (elemento) { terminar(elemento); }
+            }
+            observador = new MutationObserver(revisar);
+            observador.observe(document.documentElement || document, {childList: true, subtree: true, attributes: true});
+            revision = setInterval(revisar, 100);
+            vencimiento = setTimeout(function () { terminar(null); }, limite);
+            """;
+
+    private final WebDriver driver;
+
+    EsperaMutationObserver(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Espera a que el localizador coincida con un nodo visible. Si la espera necesita un tiempo maximo de script mayor
+     * al de la sesion (ESPERA_SCRIPT_TIMEOUT_MS) se aumenta solo durante la espera y se restaura al terminar, asi una
+     * sesion compartida o del pool no queda con otro valor.
+     *
+     * @param localizador    El localizador traducido a JavaScript.
+     * @param tiempoEsperaMs El tiempo de espera en milisegundos.
+     * @return El elemento visible o null si no aparecio dentro del tiempo de espera.
+     */
+    WebElement esperarVisible(LocalizadorJS localizador, long tiempoEsperaMs) {
+        long necesarioMs = tiempoEsperaMs + MARGEN_SCRIPT_MS;
+        boolean aumentado = necesarioMs > SCRIPT_TIMEOUT_MS;
+        if (aumentado) {
+            driver.manage().timeouts().setScriptTimeout(necesarioMs, TimeUnit.MILLISECONDS);
+        }
+        try {
+            Object resultado = ((JavascriptExecutor) driver).executeAsyncScript(SCRIPT, localizador.getTipo(), localizador.getValor(), tiempoEsperaMs);
+            return resultado instanceof WebElement element ? element : null;
+        } finally {
+            if (aumentado) {
+                driver.manage().timeouts().setScriptTimeout(SCRIPT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
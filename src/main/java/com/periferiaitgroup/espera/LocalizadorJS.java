@@ -0,0 +1,82 @@
+package com.periferiaitgroup.espera;
+
+import org.openqa.selenium.By;
+
+/**
+ * Traduce un {@link By} a un tipo y un valor que se pueden resolver dentro del navegador con JavaScript.
+ * <br/>
+ * {@link #FUNCIONES} contiene las funciones de busqueda y visibilidad que comparten los scripts de la libreria:
+ * {@code buscar(tipo, valor)} devuelve un arreglo con los nodos que coinciden y {@code visible(elemento)} aplica una
+ * aproximacion de la regla de visibilidad de WebDriver.
+ */
+public final class LocalizadorJS {
+
+    public static final String FUNCIONES = """
+            function buscar(tipo, valor) {
+                switch (tipo) {
+                    case 'id': return Array.from(document.querySelectorAll('[id="' + CSS.escape(valor) + '"]'));
+                    case 'name': return Array.from(document.querySelectorAll('[name="' + CSS.escape(valor) + '"]'));
+                    case 'className': return Array.from(document.getElementsByClassName(valor));
+                    case 'tagName': return Array.from(document.getElementsByTagName(valor));
+                    case 'cssSelector': return Array.from(document.querySelectorAll(valor));
+                    case 'xpath':
+                        var nodos = document.evaluate(valor, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+                        var lista = [];
+                        for (var i = 0; i < nodos.snapshotLength; i++) { lista.push(nodos.snapshotItem(i)); }
+                        return lista;
+                    case 'linkText':
+                        return Array.from(document.querySelectorAll('a')).filter(function (a) { return a.innerText.trim() === valor; });
+                    case 'partialLinkText':
+                        return Array.from(document.querySelectorAll('a')).filter(function (a) { return a.innerText.indexOf(valor) >= 0; });
+                }
+                return [];
+            }
+            function visible(e) {
+                if (!e || !e.isConnected) { return false; }
+                for (var n = e; n && n.nodeType === 1; n = n.parentElement) {
+                    var estilo = window.getComputedStyle(n);
+                    if (estilo.display === 'none' || parseFloat(estilo.opacity) === 0) { return false; }
+                }
+                var estiloElemento = window.getComputedStyle(e);
+                if (estiloElemento.visibility === 'hidden' || estiloElemento.visibility === 'collapse') { return false; }
+                var caja = e.getBoundingClientRect();
+                return caja.width > 0 && caja.height > 0;
+            }
+            """;
+
+    private final String tipo;
+    private final String valor;
+
+    private LocalizadorJS(String tipo, String valor) {
+        this.tipo = tipo;
+        this.valor = valor;
+    }
+
+    /**
+     * Convierte un localizador de Selenium.
+     *
+     * @param locator El localizador a convertir.
+     * @return El localizador para JavaScript o null si el tipo de localizador no es soportado (por ejemplo ByChained).
+     */
+    public static LocalizadorJS desde(By locator) {
+        String descripcion = locator.toString();
+        int separador = descripcion.indexOf(": ");
+        if (!descripcion.startsWith("By.") || separador < 0) {
+            return null;
+        }
+        String tipo = descripcion.substring(3, separador);
+        return switch (tipo) {
+            case "id", "name", "className", "tagName", "cssSelector", "xpath", "linkText", "partialLinkText" ->
+                    new LocalizadorJS(tipo, descripcion.substring(separador + 2));
+            default -> null;
+        };
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public String getValor() {
+        return valor;
+    }
+}
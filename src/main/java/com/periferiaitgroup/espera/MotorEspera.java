@@ -0,0 +1,174 @@
+package com.periferiaitgroup.espera;
+
+import com.epam.healenium.SelfHealingDriver;
+import com.periferiaitgroup.constantes.ModoEspera;
+import com.periferiaitgroup.constantes.ModoPolling;
+import com.periferiaitgroup.utilities.PropertyFileReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Motor de espera reutilizable de una sesion, reemplaza la creacion de un {@code WebDriverWait} por cada llamada.
+ * <br/>
+ * La primera evaluacion se hace de inmediato y si la condicion se cumple se devuelve sin esperar (camino rapido).
+ * Si no se cumple, se vuelve a evaluar con intervalos fijos o con backoff exponencial hasta agotar el tiempo de espera.
+ * Se configura en config.properties con ESPERA_POLLING_MODO (FIJO o BACKOFF), ESPERA_POLLING_INICIAL_MS y
+ * ESPERA_POLLING_MAXIMO_MS.
+ * <br/>
+ * Con ESPERA_MODO=MUTATION_OBSERVER la visibilidad de un elemento se espera dentro del navegador con un solo viaje
+ * de ida y vuelta, el polling se mantiene como respaldo para localizadores no soportados o si el script falla. El
+ * script corre sin Healenium: si el observador encuentra el elemento se entrega ese mismo elemento, y solo si la
+ * espera vence el localizador se resuelve con el driver de la sesion, asi los localizadores rotos se siguen sanando.
+ */
+public class MotorEspera {
+
+    protected static Logger log = LogManager.getLogger(MotorEspera.class);
+
+    private final WebDriver driver;
+    private final EsperaMutationObserver esperaMutationObserver;
+    private volatile ModoEspera modoEspera;
+    private volatile ModoPolling modo;
+    private volatile long intervaloInicialMs;
+    private volatile long intervaloMaximoMs;
+
+    /**
+     * Crea un motor de espera con la configuracion de config.properties.
+     *
+     * @param driver El driver de la sesion.
+     */
+    public MotorEspera(WebDriver driver) {
+        this.driver = driver;
+        this.esperaMutationObserver = new EsperaMutationObserver(
+                driver instanceof SelfHealingDriver healingDriver ? healingDriver.getDelegate() : driver);
+        this.modoEspera = ModoEspera.valueOf(PropertyFileReader.obtenerPropiedad("ESPERA_MODO", ModoEspera.POLLING.name()).toUpperCase());
+        configurar(
+                ModoPolling.valueOf(PropertyFileReader.obtenerPropiedad("ESPERA_POLLING_MODO", ModoPolling.BACKOFF.name()).toUpperCase()),
+                PropertyFileReader.obtenerPropiedad("ESPERA_POLLING_INICIAL_MS", 50),
+                PropertyFileReader.obtenerPropiedad("ESPERA_POLLING_MAXIMO_MS", 500));
+    }
+
+    /**
+     * Cambia la estrategia de polling del motor.
+     *
+     * @param modo               El modo de polling.
+     * @param intervaloInicialMs El intervalo en milisegundos despues de la primera evaluacion fallida.
+     * @param intervaloMaximoMs  El intervalo maximo en milisegundos, solo aplica al modo {@link ModoPolling#BACKOFF}.
+     */
+    public void configurar(ModoPolling modo, long intervaloInicialMs, long intervaloMaximoMs) {
+        this.modo = modo;
+        this.intervaloInicialMs = Math.max(1, intervaloInicialMs);
+        this.intervaloMaximoMs = Math.max(this.intervaloInicialMs, intervaloMaximoMs);
+    }
+
+    /**
+     * Cambia la forma en la que se espera la visibilidad de los elementos en esta sesion.
+     *
+     * @param modoEspera El modo de espera.
+     */
+    public void setModoEspera(ModoEspera modoEspera) {
+        this.modoEspera = modoEspera;
+    }
+
+    public ModoEspera getModoEspera() {
+        return modoEspera;
+    }
+
+    /**
+     * Espera a que el localizador coincida con un elemento visible usando el modo de espera de la sesion.
+     *
+     * @param locator      El localizador del elemento.
+     * @param tiempoEspera El tiempo de espera en segundos.
+     * @return El elemento visible.
+     * @throws TimeoutException Si el elemento no es visible dentro del tiempo de espera.
+     */
+    public WebElement esperarVisible(By locator, int tiempoEspera) {
+        long tiempoEsperaMs = tiempoEspera * 1000L;
+        LocalizadorJS localizador = modoEspera == ModoEspera.MUTATION_OBSERVER ? LocalizadorJS.desde(locator) : null;
+        if (localizador == null) {
+            return esperarMilisegundos(locator, tiempoEsperaMs, CondicionEspera.VISIBLE);
+        }
+
+        long inicio = System.nanoTime();
+        WebElement element;
+        try {
+            element = esperaMutationObserver.esperarVisible(localizador, tiempoEsperaMs);
+        } catch (WebDriverException e) {
+            long restanteMs = tiempoEsperaMs - (System.nanoTime() - inicio) / 1_000_000L;
+            log.debug("Fallo la espera con MutationObserver para {}, se continua con polling {} ms: {}", locator, restanteMs, e.getMessage());
+            return esperarMilisegundos(locator, Math.max(0, restanteMs), CondicionEspera.VISIBLE);
+        }
+        if (element != null) {
+            return element;
+        }
+        // El localizador no coincidio, se resuelve con el driver de Healenium para que pueda sanar el localizador
+        WebElement sanado = CondicionEspera.VISIBLE.evaluar(driver, locator);
+        if (sanado == null) {
+            throw new TimeoutException("El elemento " + locator + " no fue visible en " + tiempoEsperaMs + " ms");
+        }
+        return sanado;
+    }
+
+    /**
+     * Espera hasta que la condicion se cumpla para el localizador.
+     *
+     * @param locator      El localizador del elemento.
+     * @param tiempoEspera El tiempo de espera en segundos.
+     * @param condicion    La condicion a evaluar.
+     * @param <T>          El tipo de valor que devuelve la condicion.
+     * @return El valor devuelto por la condicion.
+     * @throws TimeoutException Si la condicion no se cumple dentro del tiempo de espera.
+     */
+    public <T> T esperar(By locator, int tiempoEspera, CondicionEspera<T> condicion) {
+        return esperarMilisegundos(locator, tiempoEspera * 1000L, condicion);
+    }
+
+    /**
+     * Espera hasta que la condicion se cumpla para el localizador.
+     *
+     * @param locator        El localizador del elemento.
+     * @param tiempoEsperaMs El tiempo de espera en milisegundos.
+     * @param condicion      La condicion a evaluar.
+     * @param <T>            El tipo de valor que devuelve la condicion.
+     * @return El valor devuelto por la condicion.
+     * @throws TimeoutException Si la condicion no se cumple dentro del tiempo de espera.
+     */
+    public <T> T esperarMilisegundos(By locator, long tiempoEsperaMs, CondicionEspera<T> condicion) {
+        long limite = System.nanoTime() + tiempoEsperaMs * 1_000_000L;
+        T resultado = condicion.evaluar(driver, locator);
+        if (resultado != null) {
+            return resultado;
+        }
+
+        long intervalo = intervaloInicialMs;
+        while (true) {
+            long restanteMs = (limite - System.nanoTime()) / 1_000_000L;
+            if (restanteMs <= 0) {
+                throw new TimeoutException("La condicion no se cumplio para " + locator + " en " + tiempoEsperaMs + " ms");
+            }
+            dormir(Math.min(intervalo, restanteMs));
+
+            resultado = condicion.evaluar(driver, locator);
+            if (resultado != null) {
+                return resultado;
+            }
+
+            if (modo == ModoPolling.BACKOFF) {
+                intervalo = Math.min(intervalo * 2, intervaloMaximoMs);
+            }
+        }
+    }
+
+    private static void dormir(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Se interrumpio la espera", e);
+        }
+    }
+}
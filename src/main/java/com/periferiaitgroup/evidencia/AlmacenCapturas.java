@@ -0,0 +1,95 @@
+package com.periferiaitgroup.evidencia;
+
+import com.periferiaitgroup.utilities.GestorArchivos;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Almacen de capturas de una sesion de evidencia.
+ * <br/>
+ * Cada captura recibe un consecutivo monotono de la sesion en el momento en que se toma (en el hilo de la prueba),
+ * asi el orden y el nombre del archivo no dependen de la hora del sistema y capturas tomadas en el mismo segundo no
+ * se sobrescriben. Las imagenes se escriben de forma atomica como {@code captura_000001.png} y cada paso queda
+ * registrado en {@code manifiesto.csv} (consecutivo, momento, tipo, mensaje e imagen).
+ */
+class AlmacenCapturas {
+
+    protected static Logger log = LogManager.getLogger(AlmacenCapturas.class);
+
+    static final String MANIFIESTO = "manifiesto.csv";
+
+    private final File carpeta;
+    private final Path manifiesto;
+    private final AtomicLong secuencia = new AtomicLong();
+
+    AlmacenCapturas(File carpeta) {
+        this.carpeta = carpeta;
+        this.manifiesto = new File(carpeta, MANIFIESTO).toPath();
+        escribirLinea("secuencia,momento,tipo,mensaje,imagen");
+    }
+
+    /**
+     * Reserva el siguiente consecutivo de la sesion, se llama en el hilo de la prueba al tomar la captura.
+     *
+     * @return El consecutivo de la captura, empieza en 1.
+     */
+    long siguienteSecuencia() {
+        return secuencia.incrementAndGet();
+    }
+
+    /**
+     * Guarda la imagen de una captura de forma atomica.
+     *
+     * @param secuencia El consecutivo de la captura.
+     * @param captura   Los bytes de la imagen en formato png.
+     * @return El archivo guardado o null si no se pudo escribir.
+     */
+    File guardar(long secuencia, byte[] captura) {
+        File imagen = new File(carpeta, String.format("captura_%06d.png", secuencia));
+        try {
+            GestorArchivos.escribirArchivoAtomico(imagen.toPath(), captura);
+            return imagen;
+        } catch (IOException e) {
+            log.error("No se pudo guardar la captura {}: {}", imagen, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Registra un paso en el manifiesto de la sesion.
+     *
+     * @param secuencia El consecutivo de la captura.
+     * @param momento   El momento en que se tomo la captura.
+     * @param tipo      El tipo de paso (ACCION o ERROR).
+     * @param mensaje   El mensaje del paso.
+     * @param imagen    La imagen guardada o null si la captura solo quedo en el reporte.
+     */
+    void registrar(long secuencia, Instant momento, String tipo, String mensaje, File imagen) {
+        escribirLinea(secuencia + "," + momento + "," + tipo + "," + csv(mensaje) + "," + (imagen == null ? "" : csv(imagen.getName())));
+    }
+
+    private void escribirLinea(String linea) {
+        try {
+            Files.writeString(manifiesto, linea + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("No se pudo escribir el manifiesto de evidencia {}: {}", manifiesto, e.getMessage());
+        }
+    }
+
+    private static String csv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        return "\"" + valor.replace("\"", "\"\"").replace("\r", " ").replace("\n", " ") + "\"";
+    }
+}
@@ -0,0 +1,11 @@
+package com.periferiaitgroup.evidencia;
+
+/**
+ * Captura lista para incrustar en el reporte.
+ *
+ * @param datos   La imagen codificada (png o jpeg).
+ * @param anchoPt El ancho del recuadro en el pdf en puntos.
+ * @param altoPt  El alto del recuadro en el pdf en puntos.
+ */
+record CapturaPreparada(byte[] datos, float anchoPt, float altoPt) {
+}
@@ -0,0 +1,34 @@
+package com.periferiaitgroup.evidencia;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ahorro de tamaño y tiempo de preparacion de las capturas de un reporte.
+ */
+class EstadisticasImagenes {
+
+    private final LongAdder imagenes = new LongAdder();
+    private final LongAdder bytesOriginales = new LongAdder();
+    private final LongAdder bytesFinales = new LongAdder();
+    private final LongAdder nanosPreparacion = new LongAdder();
+
+    void registrar(long originales, long finales, long nanos) {
+        imagenes.increment();
+        bytesOriginales.add(originales);
+        bytesFinales.add(finales);
+        nanosPreparacion.add(nanos);
+    }
+
+    long getImagenes() {
+        return imagenes.sum();
+    }
+
+    @Override
+    public String toString() {
+        long originales = bytesOriginales.sum();
+        long finales = bytesFinales.sum();
+        double ahorro = originales == 0 ? 0 : 100.0 * (originales - finales) / originales;
+        return String.format("%d imagenes, %.2f MB -> %.2f MB (%.1f%% menos), preparacion %.1f ms",
+                imagenes.sum(), originales / 1_048_576.0, finales / 1_048_576.0, ahorro, nanosPreparacion.sum() / 1_000_000.0);
+    }
+}
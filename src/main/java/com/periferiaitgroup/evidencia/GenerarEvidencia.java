@@ -1,20 +1,46 @@
 package com.periferiaitgroup.evidencia;
 
+import com.periferiaitgroup.constantes.FormatoEvidencia;
+import com.periferiaitgroup.constantes.PoliticaEvidencia;
 import com.periferiaitgroup.utilities.CaptureScreen;
 import com.periferiaitgroup.utilities.GestorArchivos;
+import com.periferiaitgroup.utilities.PropertyFileReader;
+import com.itextpdf.text.DocumentException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 
 import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * Clase para la creacion de evidencias
+ * <br/>
+ * La evidencia de cada prueba se escribe en los formatos de EVIDENCIA_FORMATOS ({@link FormatoEvidencia}, por
+ * defecto PDF). Con EVIDENCIA_PDF_DIFERIDO=true no se compone el pdf durante la ejecucion: se escribe el registro
+ * JSONL y el pdf se genera al finalizar solo si la prueba registro errores, o cuando se pide con
+ * {@link #generarReportePDF(File)}.
+ * <br/>
+ * Que capturas se toman y escriben lo decide EVIDENCIA_POLITICA ({@link PoliticaEvidencia}, por defecto SIEMPRE).
  */
 public class GenerarEvidencia {
     private static final String EVIDENCE_PATH = "./outputData/";
-    private static File rutaCarpetaEvidencia;
+    private static final ThreadLocal<SesionEvidencia> sesionEvidencia = new ThreadLocal<>();
+    private static final AtomicBoolean carpetaEvidenciaLimpia = new AtomicBoolean(false);
+    private static final AtomicInteger contadorSesiones = new AtomicInteger();
+    private static final boolean GUARDAR_CAPTURAS = PropertyFileReader.obtenerPropiedad("EVIDENCIA_GUARDAR_CAPTURAS", false);
+    private static final boolean PDF_DIFERIDO = PropertyFileReader.obtenerPropiedad("EVIDENCIA_PDF_DIFERIDO", false);
+    private static final Set<FormatoEvidencia> FORMATOS = formatosConfigurados();
     protected static Logger log = LogManager.getLogger(GenerarEvidencia.class);
 
     private GenerarEvidencia() {
@@ -23,6 +49,12 @@ public class GenerarEvidencia {
 
     /**
      * Metodo para iniciar la generacion de evidencias se genera un reporte en pdf y un video de la ejecucion.
+     * <br/>
+     * Cada evidencia tiene sus propios sumideros; el {@link ReportePDF} tambien queda asociado al hilo para los
+     * metodos estaticos de {@link GenerarReportePDF}.
+     * <br/>
+     * Cada hilo tiene su propia carpeta de evidencias, la carpeta de salida solo se limpia la primera vez que se
+     * inicia una evidencia en la JVM para no borrar la evidencia de las pruebas que se ejecutan en paralelo.
      *
      * @param nameTest Nombre del test ejecutado
      * @param nameAnalyst Nombre del analista al que queda la ejecucion
@@ -30,36 +62,118 @@ public class GenerarEvidencia {
      */
     public static void iniciarEvidencia(String nameTest, String nameAnalyst, String urlPage) {
 
-        GestorArchivos.eliminarCarpeta(EVIDENCE_PATH);
-        rutaCarpetaEvidencia = GestorArchivos.crearCarpetaEvidencia(EVIDENCE_PATH, nameTest);
-        log.info("La evidencia se guardo en {} ", rutaCarpetaEvidencia.getPath());
+        if (carpetaEvidenciaLimpia.compareAndSet(false, true)) {
+            GestorArchivos.eliminarCarpeta(EVIDENCE_PATH);
+        }
+        String nombreCarpeta = nameTest + "_" + String.format("%03d", contadorSesiones.incrementAndGet());
+        File carpeta = GestorArchivos.crearCarpetaEvidencia(EVIDENCE_PATH, nombreCarpeta);
+        log.info("La evidencia se guardo en {} ", carpeta.getPath());
 
-        GenerarReportePDF.createTemplate(rutaCarpetaEvidencia, nameTest, nameAnalyst, urlPage);
-        GenerarReporteVideo.startRecording(rutaCarpetaEvidencia, nameTest);
+        List<SumideroEvidencia> sumideros = new ArrayList<>();
+        if (FORMATOS.contains(FormatoEvidencia.PDF)) {
+            try {
+                ReportePDF reporte = ReportePDF.crear(carpeta, nameTest, nameAnalyst, urlPage);
+                GenerarReportePDF.vincular(reporte);
+                sumideros.add(new SumideroPDF(reporte));
+            } catch (DocumentException | IOException e) {
+                log.error("No fue posible crear el reporte en pdf de la evidencia: {}", e.getMessage());
+            }
+        }
+        if (FORMATOS.contains(FormatoEvidencia.JSONL)) {
+            sumideros.add(new SumideroJSONL(carpeta, nameTest, nameAnalyst, urlPage, PDF_DIFERIDO));
+        }
+        if (FORMATOS.contains(FormatoEvidencia.HTML)) {
+            sumideros.add(new SumideroHTML(carpeta, nameTest, nameAnalyst, urlPage));
+        }
+        sesionEvidencia.set(new SesionEvidencia(carpeta, sumideros));
+        GenerarReporteVideo.startRecording(carpeta, nameTest);
 
-        log.info("Se inicio la creacion de las evidencias");
+        log.info("Se inicio la creacion de las evidencias en {}", FORMATOS);
     }
 
     /**
      * Metodo para finalizar la generacion de evidencias se cierra el reporte en pdf y el video de la ejecucion.
+     * Antes de cerrar los sumideros espera a que el pipeline termine de escribir las capturas pendientes.
+     * Si el hilo actual no tiene una evidencia abierta no hace nada.
+     *
+     * @throws IllegalStateException Si una tarea del pipeline termino con un Error y la evidencia quedo incompleta.
      */
     public static void finalizarEvidencia() {
-        GenerarReportePDF.closeTemplate();
-        GenerarReporteVideo.stopRecording();
+        SesionEvidencia sesion = sesionEvidencia.get();
+        if (sesion == null) {
+            return;
+        }
+        try {
+            sesion.politica.finalizar();
+            sesion.pipeline.esperar();
+            log.info("Evidencia de la prueba: {}", sesion.politica);
+        } finally {
+            // Los sumideros, el video y el hilo se liberan aunque la espera del pipeline falle
+            try {
+                cerrarSumideros(sesion);
+            } finally {
+                try {
+                    GenerarReporteVideo.stopRecording();
+                } finally {
+                    GenerarReportePDF.desvincular();
+                    sesionEvidencia.remove();
+                }
+            }
+        }
 
+        sesion.pipeline.reportarFallas();
         log.info("Se finalizo la creacion de las evidencias");
     }
 
+    private static void cerrarSumideros(SesionEvidencia sesion) {
+        boolean conFallos = sesion.errores.get() > 0;
+        for (SumideroEvidencia sumidero : sesion.sumideros) {
+            try {
+                sumidero.cerrar(conFallos);
+            } catch (RuntimeException e) {
+                log.error("Falla al cerrar la evidencia {}: {}", sumidero.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Espera a que la evidencia del hilo actual quede escrita por completo: si la prueba no llamo a
+     * {@link #finalizarEvidencia()} se cierra el reporte en pdf y se finaliza el video antes de liberar el navegador.
+     */
+    public static void esperarEvidenciaPendiente() {
+        if (sesionEvidencia.get() != null) {
+            log.warn("La evidencia no fue finalizada por la prueba, se finalizara antes de cerrar el driver");
+            finalizarEvidencia();
+        }
+    }
+
+    /**
+     * Genera el reporte en pdf de una carpeta de evidencia escrita con el formato JSONL, por ejemplo cuando se
+     * necesita el pdf de una prueba que termino sin errores con EVIDENCIA_PDF_DIFERIDO=true.
+     *
+     * @param carpetaEvidencia La carpeta de evidencia con el archivo eventos.jsonl.
+     * @return El pdf generado o null si no se pudo generar.
+     */
+    public static File generarReportePDF(File carpetaEvidencia) {
+        return RenderizadorPDF.renderizar(carpetaEvidencia);
+    }
+
     /**
      * Metodo para capturar evidencia en el reporte en pdf
+     * <br/>
+     * En el hilo de la prueba solo se toma la captura, la escritura en disco y en los sumideros se hace en el
+     * pipeline de evidencia de la sesion.
      *
      * @param driver           WebDriver para tomar captura de pantalla
      * @param mensajeEvidencia Mensaje que se mostrara en el reporte
      */
     public static void capturarEvidencia(WebDriver driver, String mensajeEvidencia) {
-        String rutaImg = CaptureScreen.captureScreen(driver, rutaCarpetaEvidencia);
-        GenerarReportePDF.createBody(rutaImg, mensajeEvidencia);
-        GestorArchivos.eliminarArchivo(rutaImg);
+        SesionEvidencia sesion = sesionEvidencia.get();
+        if (sesion == null) {
+            log.debug("No hay una evidencia iniciada en el hilo, se omite la captura '{}'", mensajeEvidencia);
+            return;
+        }
+        registrarCaptura(sesion, driver, PasoEvidencia.Tipo.ACCION, mensajeEvidencia, null);
     }
 
     /**
@@ -70,12 +184,138 @@ public class GenerarEvidencia {
      * @param locator Localizador del elemento que genero el error
      */
     public static void capturarEvidencia(WebDriver driver, String mensajeError, By locator) {
-        String rutaImg = CaptureScreen.captureScreen(driver, rutaCarpetaEvidencia);
-        GenerarReportePDF.createErrorBody(rutaImg, mensajeError, locator);
-        GestorArchivos.eliminarArchivo(rutaImg);
+        SesionEvidencia sesion = sesionEvidencia.get();
+        if (sesion == null) {
+            log.debug("No hay una evidencia iniciada en el hilo, se omite la captura del error sobre {}", locator);
+            return;
+        }
+        sesion.errores.incrementAndGet();
+        registrarCaptura(sesion, driver, PasoEvidencia.Tipo.ERROR, mensajeError, String.valueOf(locator));
+    }
+
+    /**
+     * Marca como fallida la prueba del hilo actual, por ejemplo desde un {@code @AfterMethod} cuando falla una
+     * asercion. Con EVIDENCIA_POLITICA=SOLO_FALLO se escriben los pasos que estaban en memoria y los siguientes.
+     */
+    public static void registrarFallo() {
+        SesionEvidencia sesion = sesionEvidencia.get();
+        if (sesion == null) {
+            return;
+        }
+        sesion.errores.incrementAndGet();
+        for (PasoEvidencia paso : sesion.politica.registrarFallo()) {
+            emitir(sesion, paso);
+        }
+    }
+
+    /**
+     * Total de capturas que no se tomaron en la JVM por la politica MUESTREO.
+     */
+    public static long getCapturasEvitadas() {
+        return PoliticaCaptura.TOTAL_EVITADAS.sum();
+    }
+
+    /**
+     * Total de capturas que se tomaron pero no se escribieron en la JVM por la politica SOLO_FALLO.
+     */
+    public static long getCapturasDescartadas() {
+        return PoliticaCaptura.TOTAL_DESCARTADAS.sum();
     }
 
     public static void capturarEvidencia(String error, String sugerencia) {
-        GenerarReportePDF.addSugerenciaOrtografia(error, sugerencia);
+        SesionEvidencia sesion = sesionEvidencia.get();
+        if (sesion == null) {
+            return;
+        }
+        PasoEvidencia paso = new PasoEvidencia(0, Instant.now(), PasoEvidencia.Tipo.SUGERENCIA, error, sugerencia, null, null);
+        sesion.pipeline.encolar("Sugerencia ortografica", () -> escribir(sesion, paso));
+    }
+
+    /**
+     * Toma la captura si la politica de evidencia lo permite y entrega al pipeline los pasos que la politica libera.
+     */
+    private static void registrarCaptura(SesionEvidencia sesion, WebDriver driver, PasoEvidencia.Tipo tipo, String mensaje, String detalle) {
+        if (!sesion.politica.debeCapturar(tipo)) {
+            return;
+        }
+        long secuencia = sesion.capturas.siguienteSecuencia();
+        Instant momento = Instant.now();
+        byte[] captura = CaptureScreen.capturarBytes(driver);
+        for (PasoEvidencia paso : sesion.politica.admitir(new PasoEvidencia(secuencia, momento, tipo, mensaje, detalle, captura, null))) {
+            emitir(sesion, paso);
+        }
+    }
+
+    private static void emitir(SesionEvidencia sesion, PasoEvidencia capturado) {
+        for (SumideroEvidencia sumidero : sesion.sumideros) {
+            sumidero.anticipar(capturado);
+        }
+        long secuencia = capturado.secuencia();
+        String detalle = capturado.detalle();
+        String descripcion = capturado.tipo() == PasoEvidencia.Tipo.ERROR ? "Error sobre " + detalle : capturado.mensaje();
+        sesion.pipeline.encolar(descripcion, () -> {
+            File imagen = persistirCaptura(sesion, secuencia, capturado.captura());
+            sesion.capturas.registrar(secuencia, capturado.momento(), capturado.tipo().name(),
+                    detalle == null ? capturado.mensaje() : detalle + ": " + capturado.mensaje(), imagen);
+            escribir(sesion, new PasoEvidencia(secuencia, capturado.momento(), capturado.tipo(), capturado.mensaje(), detalle, capturado.captura(), imagen));
+        });
+    }
+
+    /**
+     * Entrega el paso a cada sumidero, la falla de un formato no impide escribir los demas.
+     */
+    private static void escribir(SesionEvidencia sesion, PasoEvidencia paso) {
+        for (SumideroEvidencia sumidero : sesion.sumideros) {
+            try {
+                sumidero.escribir(paso);
+            } catch (RuntimeException e) {
+                log.error("Falla al escribir la evidencia {}: {}", sumidero.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Las capturas pasan de memoria al pdf sin archivos intermedios, solo se guardan como png en la carpeta de
+     * evidencia cuando EVIDENCIA_GUARDAR_CAPTURAS=true o cuando algun formato (JSONL, HTML) las referencia.
+     *
+     * @return La imagen guardada o null si la captura solo queda en el reporte.
+     */
+    private static File persistirCaptura(SesionEvidencia sesion, long secuencia, byte[] captura) {
+        return GUARDAR_CAPTURAS || sesion.requiereImagenes ? sesion.capturas.guardar(secuencia, captura) : null;
+    }
+
+    /**
+     * Lee EVIDENCIA_FORMATOS. Con EVIDENCIA_PDF_DIFERIDO=true el pdf se reemplaza por el registro JSONL.
+     */
+    private static Set<FormatoEvidencia> formatosConfigurados() {
+        Set<FormatoEvidencia> formatos = Arrays.stream(PropertyFileReader.obtenerPropiedad("EVIDENCIA_FORMATOS", "PDF").split(","))
+                .map(String::trim)
+                .filter(formato -> !formato.isEmpty())
+                .map(formato -> FormatoEvidencia.valueOf(formato.toUpperCase()))
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(FormatoEvidencia.class)));
+        if (PDF_DIFERIDO) {
+            formatos.remove(FormatoEvidencia.PDF);
+            formatos.add(FormatoEvidencia.JSONL);
+        }
+        return formatos;
+    }
+
+    /**
+     * Evidencia abierta por el hilo de la prueba, las tareas del pipeline la reciben de forma explicita porque se
+     * ejecutan en otros hilos.
+     */
+    private static class SesionEvidencia {
+        private final List<SumideroEvidencia> sumideros;
+        private final boolean requiereImagenes;
+        private final AlmacenCapturas capturas;
+        private final PipelineEvidencia pipeline = new PipelineEvidencia();
+        private final AtomicInteger errores = new AtomicInteger();
+        private final PoliticaCaptura politica = new PoliticaCaptura();
+
+        private SesionEvidencia(File carpeta, List<SumideroEvidencia> sumideros) {
+            this.sumideros = List.copyOf(sumideros);
+            this.requiereImagenes = sumideros.stream().anyMatch(SumideroEvidencia::requiereImagenes);
+            this.capturas = new AlmacenCapturas(carpeta);
+        }
     }
 }
@@ -1,11 +1,16 @@
 package com.periferiaitgroup.evidencia;
 
+import com.periferiaitgroup.constantes.ModoVideo;
+import com.periferiaitgroup.driver_manager.EjecutorComandos;
+import com.periferiaitgroup.driver_manager.SesionDriver;
 import com.periferiaitgroup.utilities.HoraSistema;
+import com.periferiaitgroup.utilities.PropertyFileReader;
 import org.monte.media.Format;
 import org.monte.media.FormatKeys.MediaType;
 import org.monte.media.Registry;
 import org.monte.media.math.Rational;
 import org.monte.screenrecorder.ScreenRecorder;
+import org.openqa.selenium.WebDriver;
 
 import java.awt.*;
 import java.io.File;
@@ -19,9 +24,18 @@ import static org.monte.media.AudioFormatKeys.MediaTypeKey;
 import static org.monte.media.AudioFormatKeys.MimeTypeKey;
 import static org.monte.media.VideoFormatKeys.*;
 
+/**
+ * Video de la evidencia, el modo se configura en VIDEO_MODO ({@link ModoVideo}, por defecto NAVEGADOR).
+ * <br/>
+ * En modo NAVEGADOR se graba solo el viewport del navegador de la sesion del hilo con {@link GrabadorNavegador};
+ * en modo PANTALLA se graba el escritorio completo con el ScreenRecorder de Monte.
+ */
 public class GenerarReporteVideo extends ScreenRecorder {
 
-    private static ScreenRecorder screenRecorder;
+    private static final ModoVideo MODO = ModoVideo.valueOf(
+            PropertyFileReader.obtenerPropiedad("VIDEO_MODO", ModoVideo.NAVEGADOR.name()).toUpperCase());
+    private static final ThreadLocal<ScreenRecorder> screenRecorder = new ThreadLocal<>();
+    private static final ThreadLocal<GrabadorNavegador> grabadorNavegador = new ThreadLocal<>();
     private final String nameFile;
 
     private GenerarReporteVideo(GraphicsConfiguration cfg, Rectangle captureArea, Format fileFormat, Format screenFormat, Format mouseFormat, Format audioFormat, File movieFolder, String
@@ -44,7 +58,47 @@ public class GenerarReporteVideo extends ScreenRecorder {
         return new File(movieFolder, nameFile + "_" + horaActual + "." + Registry.getInstance().getExtension(fileFormat));
     }
 
+    /**
+     * Inicia la grabacion del video de la evidencia del hilo actual segun VIDEO_MODO. En modo NAVEGADOR se graba el
+     * navegador de la sesion del hilo.
+     *
+     * @param filePath La carpeta donde se guarda el video.
+     * @param fileName El nombre base del video.
+     */
     public static void startRecording(File filePath, String fileName) {
+        switch (MODO) {
+            case NAVEGADOR -> startRecording(SesionDriver.driverActual(), filePath, fileName);
+            case PANTALLA -> grabarPantalla(filePath, fileName);
+            case NINGUNO -> { }
+        }
+    }
+
+    /**
+     * Inicia la grabacion del viewport de un navegador en un video MJPG. El navegador debe haber sido creado por
+     * {@link com.periferiaitgroup.driver_manager.SeleniumDriver}, que serializa los comandos de la sesion; con otros
+     * drivers no se graba el video porque las capturas se enviarian a la vez que los comandos de la prueba.
+     *
+     * @param driver   El navegador a grabar.
+     * @param filePath La carpeta donde se guarda el video.
+     * @param fileName El nombre base del video.
+     */
+    public static void startRecording(WebDriver driver, File filePath, String fileName) {
+        if (driver == null) {
+            System.err.println("No hay un navegador iniciado en el hilo, no se grabara el video de la evidencia");
+            return;
+        }
+        EjecutorComandos ejecutor = EjecutorComandos.de(driver);
+        if (ejecutor == null) {
+            System.err.println("El navegador no fue creado por SeleniumDriver, no se grabara el video de la evidencia");
+            return;
+        }
+        GrabadorNavegador grabador = new GrabadorNavegador(driver, ejecutor,
+                new File(filePath, fileName + "_" + HoraSistema.currentDate("HH-mm-ss") + ".avi"));
+        grabador.iniciar();
+        grabadorNavegador.set(grabador);
+    }
+
+    private static void grabarPantalla(File filePath, String fileName) {
         Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
         int width = screenSize.width;
         int height = screenSize.height;
@@ -54,21 +108,24 @@ public class GenerarReporteVideo extends ScreenRecorder {
         GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
 
         try {
-            screenRecorder = new GenerarReporteVideo(gc, captureSize,
+            screenRecorder.set(new GenerarReporteVideo(gc, captureSize,
                     new Format(MediaTypeKey, MediaType.FILE, MimeTypeKey, MIME_AVI),
                     new Format(MediaTypeKey, MediaType.VIDEO, EncodingKey, ENCODING_AVI_TECHSMITH_SCREEN_CAPTURE,
                             CompressorNameKey, ENCODING_AVI_TECHSMITH_SCREEN_CAPTURE, DepthKey, 24, FrameRateKey,
                             Rational.valueOf(15), QualityKey, 1.0f, KeyFrameIntervalKey, 15 * 60),
                     new Format(MediaTypeKey, MediaType.VIDEO, EncodingKey, "black", FrameRateKey, Rational.valueOf(30)),
-                    null, filePath, fileName);
+                    null, filePath, fileName));
         } catch (IOException e) {
             System.err.println("Falla de entrada/salida \n" + e);
         } catch (AWTException e) {
             System.err.println("Falla con \n" + e);
         }
 
+        if (screenRecorder.get() == null) {
+            return;
+        }
         try {
-            screenRecorder.start();
+            screenRecorder.get().start();
         } catch (IOException e) {
             System.err.println("Fallas al inciaiar la grabacion" + e);
         }
@@ -76,10 +133,23 @@ public class GenerarReporteVideo extends ScreenRecorder {
     }
 
     public static void stopRecording(){
+        GrabadorNavegador grabador = grabadorNavegador.get();
+        if (grabador != null) {
+            try {
+                grabador.detener();
+            } finally {
+                grabadorNavegador.remove();
+            }
+        }
+        if (screenRecorder.get() == null) {
+            return;
+        }
         try {
-            screenRecorder.stop();
+            screenRecorder.get().stop();
         }catch (IOException e) {
             System.err.println(e);
+        } finally {
+            screenRecorder.remove();
         }
     }
 }
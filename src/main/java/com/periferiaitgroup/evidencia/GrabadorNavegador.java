@@ -0,0 +1,239 @@
+package com.periferiaitgroup.evidencia;
+
+import com.periferiaitgroup.driver_manager.EjecutorComandos;
+import com.periferiaitgroup.utilities.CaptureScreen;
+import com.periferiaitgroup.utilities.PropertyFileReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.monte.media.Format;
+import org.monte.media.FormatKeys.MediaType;
+import org.monte.media.avi.AVIWriter;
+import org.monte.media.math.Rational;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.monte.media.VideoFormatKeys.*;
+
+/**
+ * Grabador de video de una sesion de navegador.
+ * <br/>
+ * En lugar de grabar el escritorio con AWT Robot toma capturas del viewport del navegador con WebDriver
+ * (VIDEO_FPS por segundo), por lo que funciona sin pantalla y cada prueba en paralelo graba solo su navegador.
+ * Las capturas se toman con {@link EjecutorComandos#siEstaLibre(java.util.function.Supplier)}, solo cuando la prueba
+ * no esta enviando un comando a la sesion, por lo que nunca se envian comandos a la vez que la prueba y la prueba no
+ * espera detras de una captura que aun no empezo; durante las esperas largas (por ejemplo executeAsyncScript) el cuadro
+ * anterior se mantiene en el video.
+ * Los cuadros iguales al anterior no se encolan, solo alargan la duracion del cuadro anterior en el video.
+ * La decodificacion y la compresion MJPG se hacen en un hilo de codificacion propio de la sesion; si la cola de
+ * cuadros (VIDEO_COLA_MAXIMA) se llena, el cuadro se descarta en lugar de frenar la captura. Un cuadro que no se
+ * puede codificar se descarta y el codificador sigue vaciando la cola.
+ */
+class GrabadorNavegador {
+
+    protected static Logger log = LogManager.getLogger(GrabadorNavegador.class);
+
+    private static final int FPS = Math.max(1, PropertyFileReader.obtenerPropiedad("VIDEO_FPS", 2));
+    private static final float CALIDAD = Float.parseFloat(PropertyFileReader.obtenerPropiedad("VIDEO_CALIDAD", "0.7"));
+    private static final int COLA_MAXIMA = Math.max(1, PropertyFileReader.obtenerPropiedad("VIDEO_COLA_MAXIMA", 16));
+    private static final AtomicInteger CONTADOR_HILOS = new AtomicInteger();
+    private static final ScheduledExecutorService MUESTREO = Executors.newScheduledThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2), tarea -> {
+                Thread hilo = new Thread(tarea, "video-captura-" + CONTADOR_HILOS.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            });
+    private static final Cuadro FIN = new Cuadro(null, 0);
+
+    private static final long ESPERA_CODIFICADOR_SEGUNDOS = 30;
+
+    private final WebDriver driver;
+    private final EjecutorComandos ejecutor;
+    private final File archivo;
+    private final BlockingQueue<Cuadro> cuadros = new ArrayBlockingQueue<>(COLA_MAXIMA);
+    private final Thread codificador;
+    private final LongAdder capturados = new LongAdder();
+    private final LongAdder ocupados = new LongAdder();
+    private final LongAdder repetidos = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder escritos = new LongAdder();
+    private ScheduledFuture<?> muestreo;
+    private byte[] ultimaCaptura;
+    private boolean detenido;
+
+    GrabadorNavegador(WebDriver driver, EjecutorComandos ejecutor, File archivo) {
+        this.driver = driver;
+        this.ejecutor = ejecutor;
+        this.archivo = archivo;
+        this.codificador = new Thread(this::codificar, "video-codificador-" + CONTADOR_HILOS.incrementAndGet());
+        this.codificador.setDaemon(true);
+    }
+
+    void iniciar() {
+        codificador.start();
+        muestreo = MUESTREO.scheduleWithFixedDelay(this::capturar, 0, 1000L / FPS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene la captura, espera a que el codificador escriba los cuadros pendientes y cierra el video.
+     */
+    void detener() {
+        muestreo.cancel(false);
+        // Espera a que termine la captura en curso, si la hay, antes de cerrar la cola
+        synchronized (this) {
+            detenido = true;
+        }
+        try {
+            // Si el codificador murio nadie vacia la cola, no se espera indefinidamente
+            while (codificador.isAlive() && !cuadros.offer(FIN, 1, TimeUnit.SECONDS)) {
+                log.debug("La cola del video {} esta llena, se reintenta el cierre", archivo.getName());
+            }
+            codificador.join(TimeUnit.SECONDS.toMillis(ESPERA_CODIFICADOR_SEGUNDOS));
+            if (codificador.isAlive()) {
+                log.error("El codificador del video {} no termino, se interrumpe", archivo.getName());
+                codificador.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            codificador.interrupt();
+        }
+        log.info("Video {}: {} capturas, {} omitidas con la sesion ocupada, {} repetidas, {} descartadas, {} cuadros escritos",
+                archivo.getName(), capturados.sum(), ocupados.sum(), repetidos.sum(), descartados.sum(), escritos.sum());
+    }
+
+    private synchronized void capturar() {
+        if (detenido) {
+            return;
+        }
+        byte[] captura;
+        try {
+            captura = ejecutor.siEstaLibre(() -> CaptureScreen.capturarBytes(driver));
+        } catch (WebDriverException e) {
+            log.debug("No se pudo capturar el cuadro del video: {}", e.getMessage());
+            return;
+        }
+        if (captura == null) {
+            ocupados.increment();
+            return;
+        }
+        capturados.increment();
+        if (Arrays.equals(captura, ultimaCaptura)) {
+            repetidos.increment();
+            return;
+        }
+        ultimaCaptura = captura;
+        if (!cuadros.offer(new Cuadro(captura, System.nanoTime()))) {
+            descartados.increment();
+        }
+    }
+
+    /**
+     * Cada cuadro se escribe cuando llega el siguiente, asi su duracion cubre el tiempo en que la pantalla no cambio.
+     */
+    private void codificar() {
+        AVIWriter writer = null;
+        int pista = 0;
+        int ancho = 0;
+        int alto = 0;
+        BufferedImage pendiente = null;
+        long momentoPendiente = 0;
+        boolean escribir = true;
+        try {
+            Cuadro cuadro;
+            while ((cuadro = cuadros.take()) != FIN) {
+                if (!escribir) {
+                    // El video ya fallo, solo se vacia la cola para no bloquear la captura ni el cierre
+                    continue;
+                }
+                try {
+                    BufferedImage imagen = ImageIO.read(new ByteArrayInputStream(cuadro.captura()));
+                    if (imagen == null) {
+                        continue;
+                    }
+                    if (writer == null) {
+                        ancho = imagen.getWidth();
+                        alto = imagen.getHeight();
+                        writer = new AVIWriter(archivo);
+                        pista = writer.addTrack(new Format(MediaTypeKey, MediaType.VIDEO, EncodingKey, ENCODING_AVI_MJPG,
+                                DepthKey, 24, QualityKey, CALIDAD, FrameRateKey, new Rational(FPS, 1),
+                                WidthKey, ancho, HeightKey, alto));
+                    }
+                    if (pendiente != null) {
+                        writer.write(pista, pendiente, duracion(momentoPendiente, cuadro.momento()));
+                        escritos.increment();
+                    }
+                    pendiente = ajustar(imagen, ancho, alto);
+                    momentoPendiente = cuadro.momento();
+                } catch (IOException e) {
+                    log.error("Falla al escribir el video {}: {}", archivo, e.getMessage());
+                    escribir = false;
+                } catch (Throwable e) {
+                    log.error("Falla al codificar un cuadro del video {}: {}", archivo, e.toString());
+                    descartados.increment();
+                }
+            }
+            if (pendiente != null && escribir) {
+                writer.write(pista, pendiente, duracion(momentoPendiente, System.nanoTime()));
+                escritos.increment();
+            }
+        } catch (IOException e) {
+            log.error("Falla al escribir el video {}: {}", archivo, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            cerrar(writer);
+        }
+    }
+
+    /**
+     * Duracion del cuadro en unidades de la pista (1/VIDEO_FPS segundos), como minimo un cuadro.
+     */
+    private static long duracion(long desde, long hasta) {
+        return Math.max(1, Math.round((hasta - desde) / 1_000_000_000.0 * FPS));
+    }
+
+    /**
+     * El codec MJPG no tiene canal alfa y la pista tiene un tamaño fijo, si el viewport cambio de tamaño se escala.
+     */
+    private static BufferedImage ajustar(BufferedImage imagen, int ancho, int alto) {
+        if (imagen.getType() == BufferedImage.TYPE_INT_RGB && imagen.getWidth() == ancho && imagen.getHeight() == alto) {
+            return imagen;
+        }
+        BufferedImage rgb = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D grafico = rgb.createGraphics();
+        grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        grafico.drawImage(imagen, 0, 0, ancho, alto, null);
+        grafico.dispose();
+        return rgb;
+    }
+
+    private void cerrar(AVIWriter writer) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException | RuntimeException e) {
+            log.error("Falla al cerrar el video {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    private record Cuadro(byte[] captura, long momento) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.periferiaitgroup.evidencia;
+
+import java.io.File;
+import java.time.Instant;
+
+/**
+ * Paso de evidencia que se entrega a cada {@link SumideroEvidencia} de la sesion.
+ *
+ * @param secuencia El consecutivo de la captura en la sesion, 0 si el paso no tiene captura.
+ * @param momento   El momento en que se registro el paso.
+ * @param tipo      El tipo de paso.
+ * @param mensaje   El mensaje de la accion, el mensaje de error o la palabra con error.
+ * @param detalle   El localizador del error o las sugerencias ortograficas, null en las acciones.
+ * @param captura   La captura en formato png, null si el paso no tiene captura.
+ * @param imagen    La captura guardada en la carpeta de evidencia o null si no se guardo.
+ */
+record PasoEvidencia(long secuencia, Instant momento, Tipo tipo, String mensaje, String detalle, byte[] captura, File imagen) {
+
+    enum Tipo {
+        ACCION, ERROR, SUGERENCIA
+    }
+}
@@ -0,0 +1,123 @@
+package com.periferiaitgroup.evidencia;
+
+import com.periferiaitgroup.utilities.PropertyFileReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cola de escritura de evidencia de una sesion, procesa en segundo plano la composicion del pdf y la escritura
+ * en disco de las capturas para que el hilo de la prueba solo pague el tiempo de tomar la captura.
+ * <br/>
+ * Todas las sesiones comparten un grupo fijo de hilos (EVIDENCIA_HILOS). Las tareas de una misma sesion se
+ * encadenan, por lo que se ejecutan en orden y nunca en paralelo sobre el mismo documento. El numero de tareas
+ * pendientes en la JVM esta limitado por EVIDENCIA_COLA_MAXIMA: si se alcanza el limite, el hilo de la prueba
+ * espera a que se libere un cupo (contrapresion) en lugar de acumular capturas en memoria.
+ * Con EVIDENCIA_ASINCRONA=false las tareas se ejecutan en el hilo de la prueba.
+ * <br/>
+ * Una tarea que falla no detiene las siguientes, pero la falla queda registrada en el pipeline y
+ * {@link #reportarFallas()} la informa al finalizar la evidencia.
+ */
+class PipelineEvidencia {
+
+    protected static Logger log = LogManager.getLogger(PipelineEvidencia.class);
+
+    private static final boolean ASINCRONA = PropertyFileReader.obtenerPropiedad("EVIDENCIA_ASINCRONA", true);
+    private static final Semaphore CUPOS = new Semaphore(Math.max(1, PropertyFileReader.obtenerPropiedad("EVIDENCIA_COLA_MAXIMA", 16)));
+    private static final AtomicInteger CONTADOR_HILOS = new AtomicInteger();
+    private static final ExecutorService TRABAJADORES = Executors.newFixedThreadPool(
+            Math.max(1, PropertyFileReader.obtenerPropiedad("EVIDENCIA_HILOS", 2)), tarea -> {
+                Thread hilo = new Thread(tarea, "evidencia-pipeline-" + CONTADOR_HILOS.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            });
+
+    private CompletableFuture<Void> ultimaTarea = CompletableFuture.completedFuture(null);
+    private final AtomicInteger fallas = new AtomicInteger();
+    private volatile Error errorGrave;
+
+    /**
+     * Agrega una tarea al final de la cola de la sesion. Solo debe llamarse desde el hilo duenio de la sesion.
+     *
+     * @param descripcion Descripcion de la tarea para el log en caso de falla.
+     * @param tarea       La tarea a ejecutar.
+     */
+    void encolar(String descripcion, Runnable tarea) {
+        if (!ASINCRONA) {
+            ejecutar(descripcion, tarea);
+            return;
+        }
+        CUPOS.acquireUninterruptibly();
+        try {
+            // handle y no thenRun: la tarea se ejecuta y libera su cupo aunque una tarea anterior haya fallado
+            ultimaTarea = ultimaTarea.handleAsync((resultado, falla) -> {
+                try {
+                    ejecutar(descripcion, tarea);
+                } finally {
+                    CUPOS.release();
+                }
+                return null;
+            }, TRABAJADORES);
+        } catch (RuntimeException e) {
+            CUPOS.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Barrera de vaciado: espera a que terminen todas las tareas encoladas de la sesion. Las fallas de las tareas ya
+     * quedaron registradas, se informan con {@link #reportarFallas()}.
+     */
+    void esperar() {
+        try {
+            ultimaTarea.join();
+        } catch (CompletionException | CancellationException e) {
+            if (!(e.getCause() instanceof Error)) {
+                fallas.incrementAndGet();
+                log.error("Falla al esperar la evidencia pendiente", e);
+            }
+        }
+    }
+
+    /**
+     * Informa las tareas que fallaron desde que se creo el pipeline, se llama despues de {@link #esperar()}.
+     *
+     * @throws IllegalStateException Si alguna tarea termino con un Error (por ejemplo falta de memoria al decodificar
+     *                               una captura), con ese Error como causa.
+     */
+    void reportarFallas() {
+        int total = fallas.get();
+        if (errorGrave != null) {
+            throw new IllegalStateException("La evidencia de la prueba quedo incompleta, fallaron " + total + " tareas", errorGrave);
+        }
+        if (total > 0) {
+            log.error("La evidencia de la prueba quedo incompleta, fallaron {} tareas", total);
+        }
+    }
+
+    /**
+     * Ejecuta la tarea y registra su falla. Las RuntimeException quedan en el log para que la cadena de tareas de la
+     * sesion siga viva; los Error se registran y se propagan.
+     */
+    private void ejecutar(String descripcion, Runnable tarea) {
+        try {
+            tarea.run();
+        } catch (RuntimeException e) {
+            fallas.incrementAndGet();
+            log.error("Falla al procesar la evidencia '{}'", descripcion, e);
+        } catch (Error e) {
+            fallas.incrementAndGet();
+            if (errorGrave == null) {
+                errorGrave = e;
+            }
+            throw e;
+        }
+    }
+}
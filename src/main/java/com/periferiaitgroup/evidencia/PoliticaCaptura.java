@@ -0,0 +1,119 @@
+package com.periferiaitgroup.evidencia;
+
+import com.periferiaitgroup.constantes.PoliticaEvidencia;
+import com.periferiaitgroup.utilities.PropertyFileReader;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aplica la {@link PoliticaEvidencia} de una sesion de evidencia. Se usa solo desde el hilo de la prueba.
+ * <br/>
+ * Lleva la cuenta de los pasos escritos, de las capturas que no se tomaron (MUESTREO) y de las que se tomaron pero
+ * se descartaron porque la prueba no fallo (SOLO_FALLO). Los totales de la JVM se consultan con
+ * {@link GenerarEvidencia#getCapturasEvitadas()} y {@link GenerarEvidencia#getCapturasDescartadas()}.
+ */
+class PoliticaCaptura {
+
+    static final PoliticaEvidencia POLITICA = PoliticaEvidencia.valueOf(
+            PropertyFileReader.obtenerPropiedad("EVIDENCIA_POLITICA", PoliticaEvidencia.SIEMPRE.name()).toUpperCase());
+    private static final int PASOS_EN_MEMORIA = Math.max(1, PropertyFileReader.obtenerPropiedad("EVIDENCIA_PASOS_EN_MEMORIA", 10));
+    private static final int MUESTREO = Math.max(1, PropertyFileReader.obtenerPropiedad("EVIDENCIA_MUESTREO", 5));
+
+    static final LongAdder TOTAL_EVITADAS = new LongAdder();
+    static final LongAdder TOTAL_DESCARTADAS = new LongAdder();
+
+    private final Deque<PasoEvidencia> pasosEnMemoria = new ArrayDeque<>();
+    private boolean fallo;
+    private long acciones;
+    private long escritos;
+    private long evitadas;
+    private long descartadas;
+
+    /**
+     * Indica si se debe tomar la captura de un paso. En MUESTREO se captura la primera accion y luego una de cada
+     * EVIDENCIA_MUESTREO; los errores siempre se capturan.
+     *
+     * @param tipo El tipo del paso.
+     * @return true si se debe tomar la captura.
+     */
+    boolean debeCapturar(PasoEvidencia.Tipo tipo) {
+        if (POLITICA != PoliticaEvidencia.MUESTREO || tipo != PasoEvidencia.Tipo.ACCION) {
+            return true;
+        }
+        if (acciones++ % MUESTREO == 0) {
+            return true;
+        }
+        evitadas++;
+        TOTAL_EVITADAS.increment();
+        return false;
+    }
+
+    /**
+     * Recibe un paso capturado y devuelve los pasos que se deben escribir en este momento.
+     * <br/>
+     * En SOLO_FALLO, mientras la prueba no falle, el paso queda en memoria (si se supera el limite se descarta el mas
+     * antiguo) y no se escribe nada. Un error marca la sesion como fallida y devuelve los pasos en memoria seguidos
+     * del error.
+     *
+     * @param paso El paso capturado.
+     * @return Los pasos a escribir, en orden.
+     */
+    List<PasoEvidencia> admitir(PasoEvidencia paso) {
+        if (POLITICA != PoliticaEvidencia.SOLO_FALLO || fallo) {
+            escritos++;
+            return List.of(paso);
+        }
+        if (paso.tipo() == PasoEvidencia.Tipo.ERROR) {
+            List<PasoEvidencia> pasos = registrarFallo();
+            pasos.add(paso);
+            escritos++;
+            return pasos;
+        }
+        if (pasosEnMemoria.size() == PASOS_EN_MEMORIA) {
+            pasosEnMemoria.pollFirst();
+            descartar(1);
+        }
+        pasosEnMemoria.addLast(paso);
+        return List.of();
+    }
+
+    /**
+     * Marca la sesion como fallida y devuelve los pasos que estaban en memoria para escribirlos.
+     *
+     * @return Los pasos en memoria, en orden.
+     */
+    List<PasoEvidencia> registrarFallo() {
+        fallo = true;
+        List<PasoEvidencia> pasos = new ArrayList<>(pasosEnMemoria);
+        escritos += pasos.size();
+        pasosEnMemoria.clear();
+        return pasos;
+    }
+
+    /**
+     * Descarta los pasos que siguen en memoria al finalizar una prueba sin fallos.
+     */
+    void finalizar() {
+        descartar(pasosEnMemoria.size());
+        pasosEnMemoria.clear();
+    }
+
+    boolean isFallo() {
+        return fallo;
+    }
+
+    private void descartar(int pasos) {
+        descartadas += pasos;
+        TOTAL_DESCARTADAS.add(pasos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("politica %s, %d pasos escritos, %d capturas evitadas, %d capturas descartadas",
+                POLITICA, escritos, evitadas, descartadas);
+    }
+}
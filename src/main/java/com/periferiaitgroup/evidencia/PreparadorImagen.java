@@ -0,0 +1,260 @@
+package com.periferiaitgroup.evidencia;
+
+import com.periferiaitgroup.constantes.FormatoImagen;
+import com.periferiaitgroup.utilities.PropertyFileReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.itextpdf.text.BadElementException;
+import com.itextpdf.text.Image;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Prepara las capturas antes de incrustarlas en el reporte en pdf.
+ * <br/>
+ * Las capturas se remuestrean a la resolucion que realmente ocupan en el recuadro del pdf (EVIDENCIA_IMAGEN_DPI,
+ * por defecto 150 dpi) y se recodifican segun EVIDENCIA_IMAGEN_FORMATO ({@link FormatoImagen}). La preparacion se
+ * ejecuta en un grupo de hilos del tamaño del numero de nucleos, en paralelo con la escritura del reporte.
+ */
+class PreparadorImagen {
+
+    protected static Logger log = LogManager.getLogger(PreparadorImagen.class);
+
+    private static final FormatoImagen FORMATO = FormatoImagen.valueOf(
+            PropertyFileReader.obtenerPropiedad("EVIDENCIA_IMAGEN_FORMATO", FormatoImagen.PNG.name()).toUpperCase());
+    private static final int DPI = Math.max(72, PropertyFileReader.obtenerPropiedad("EVIDENCIA_IMAGEN_DPI", 150));
+    private static final float CALIDAD_JPEG = Float.parseFloat(PropertyFileReader.obtenerPropiedad("EVIDENCIA_IMAGEN_CALIDAD_JPEG", "0.85"));
+    private static final int CELDAS = 1 << 15;
+    private static final AtomicInteger CONTADOR_HILOS = new AtomicInteger();
+    private static final ExecutorService HILOS = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), tarea -> {
+        Thread hilo = new Thread(tarea, "evidencia-imagen-" + CONTADOR_HILOS.incrementAndGet());
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private PreparadorImagen() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Inicia la preparacion de una captura en el grupo de hilos de preparacion.
+     *
+     * @param png          La captura en formato png.
+     * @param caja         Calcula el recuadro en puntos del pdf a partir del ancho y alto en pixeles de la captura.
+     * @param estadisticas Las estadisticas del reporte o null si no se registran.
+     * @return La captura preparada.
+     */
+    static CompletableFuture<CapturaPreparada> prepararAsync(byte[] png, BiFunction<Integer, Integer, float[]> caja, EstadisticasImagenes estadisticas) {
+        return CompletableFuture.supplyAsync(() -> preparar(png, caja, estadisticas), HILOS);
+    }
+
+    /**
+     * Prepara una captura en el hilo actual. Si la imagen no se puede procesar se devuelve la original. Acepta
+     * cualquier formato que lean ImageIO o iText; si ImageIO no reconoce el formato el recuadro se calcula con las
+     * dimensiones que lee iText, como antes de remuestrear las capturas.
+     *
+     * @param png          La captura, normalmente en formato png.
+     * @param caja         Calcula el recuadro en puntos del pdf a partir del ancho y alto en pixeles de la captura.
+     * @param estadisticas Las estadisticas del reporte o null si no se registran.
+     * @return La captura preparada.
+     */
+    static CapturaPreparada preparar(byte[] png, BiFunction<Integer, Integer, float[]> caja, EstadisticasImagenes estadisticas) {
+        long inicio = System.nanoTime();
+        int[] dimensiones = dimensiones(png);
+        if (dimensiones == null) {
+            log.warn("No se pudieron leer las dimensiones de la captura, se incrusta la original");
+            return new CapturaPreparada(png, 0, 0);
+        }
+        float[] recuadro = caja.apply(dimensiones[0], dimensiones[1]);
+        byte[] datos = png;
+
+        if (FORMATO != FormatoImagen.ORIGINAL) {
+            try {
+                BufferedImage original = ImageIO.read(new ByteArrayInputStream(png));
+                if (original == null) {
+                    throw new IOException("Formato de imagen no soportado por ImageIO");
+                }
+                int ancho = Math.min(original.getWidth(), Math.max(1, Math.round(recuadro[0] / 72f * DPI)));
+                int alto = Math.min(original.getHeight(), Math.max(1, Math.round(recuadro[1] / 72f * DPI)));
+                byte[] recodificada = codificar(remuestrear(original, ancho, alto));
+                if (recodificada.length < png.length) {
+                    datos = recodificada;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("No se pudo preparar la captura, se incrusta la original: {}", e.getMessage());
+            }
+        }
+
+        if (estadisticas != null) {
+            estadisticas.registrar(png.length, datos.length, System.nanoTime() - inicio);
+        }
+        return new CapturaPreparada(datos, recuadro[0], recuadro[1]);
+    }
+
+    /**
+     * Lee el ancho y alto de la imagen sin decodificarla, con el lector de ImageIO del formato o, si ImageIO no lo
+     * reconoce, con iText.
+     *
+     * @return El ancho y alto en pixeles o null si la imagen no se puede leer.
+     */
+    static int[] dimensiones(byte[] imagen) {
+        if (imagen == null || imagen.length == 0) {
+            return null;
+        }
+        try (ImageInputStream stream = ImageIO.createImageInputStream(new ByteArrayInputStream(imagen))) {
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(stream);
+            if (lectores.hasNext()) {
+                ImageReader lector = lectores.next();
+                try {
+                    lector.setInput(stream, true, true);
+                    return new int[]{lector.getWidth(0), lector.getHeight(0)};
+                } finally {
+                    lector.dispose();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("ImageIO no pudo leer las dimensiones de la captura: {}", e.getMessage());
+        }
+        try {
+            Image itext = Image.getInstance(imagen);
+            return new int[]{Math.round(itext.getWidth()), Math.round(itext.getHeight())};
+        } catch (BadElementException | IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reduce la imagen a la mitad en varios pasos bilineales hasta acercarse al tamaño final, asi el texto de la
+     * captura conserva la legibilidad que se perderia con una sola reduccion grande.
+     */
+    private static BufferedImage remuestrear(BufferedImage original, int ancho, int alto) {
+        int tipo = FORMATO == FormatoImagen.PNG ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage actual = original;
+        int anchoActual = original.getWidth();
+        int altoActual = original.getHeight();
+        do {
+            anchoActual = Math.max(ancho, anchoActual / 2);
+            altoActual = Math.max(alto, altoActual / 2);
+            BufferedImage paso = new BufferedImage(anchoActual, altoActual, tipo);
+            Graphics2D grafico = paso.createGraphics();
+            grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            grafico.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            grafico.drawImage(actual, 0, 0, anchoActual, altoActual, null);
+            grafico.dispose();
+            actual = paso;
+        } while (anchoActual != ancho || altoActual != alto);
+        return actual;
+    }
+
+    private static byte[] codificar(BufferedImage imagen) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        switch (FORMATO) {
+            case JPEG -> {
+                ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+                ImageWriteParam parametros = writer.getDefaultWriteParam();
+                parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                parametros.setCompressionQuality(CALIDAD_JPEG);
+                try (ImageOutputStream stream = ImageIO.createImageOutputStream(salida)) {
+                    writer.setOutput(stream);
+                    writer.write(null, new IIOImage(imagen, null, null), parametros);
+                } finally {
+                    writer.dispose();
+                }
+            }
+            case PNG_INDEXADO -> ImageIO.write(indexar(imagen), "png", salida);
+            default -> ImageIO.write(imagen, "png", salida);
+        }
+        return salida.toByteArray();
+    }
+
+    /**
+     * Convierte la imagen a una paleta adaptativa de hasta 256 colores. Los colores se agrupan en celdas de 5 bits
+     * por canal y la paleta se forma con el color promedio de las celdas mas usadas; cada celda restante usa el color
+     * mas cercano de la paleta. Las capturas de paginas web tienen pocos colores, por lo que casi siempre todas las
+     * celdas entran en la paleta.
+     */
+    private static BufferedImage indexar(BufferedImage imagen) {
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        int[] pixeles = imagen.getRGB(0, 0, ancho, alto, null, 0, ancho);
+
+        int[] usos = new int[CELDAS];
+        long[] sumaRojo = new long[CELDAS];
+        long[] sumaVerde = new long[CELDAS];
+        long[] sumaAzul = new long[CELDAS];
+        for (int pixel : pixeles) {
+            int celda = celda(pixel);
+            usos[celda]++;
+            sumaRojo[celda] += (pixel >> 16) & 0xff;
+            sumaVerde[celda] += (pixel >> 8) & 0xff;
+            sumaAzul[celda] += pixel & 0xff;
+        }
+
+        Integer[] usadas = IntStream.range(0, CELDAS).filter(celda -> usos[celda] > 0).boxed()
+                .sorted((a, b) -> Integer.compare(usos[b], usos[a])).toArray(Integer[]::new);
+        int colores = Math.min(256, usadas.length);
+        byte[] rojo = new byte[colores];
+        byte[] verde = new byte[colores];
+        byte[] azul = new byte[colores];
+        int[] indice = new int[CELDAS];
+        for (int i = 0; i < colores; i++) {
+            int celda = usadas[i];
+            rojo[i] = (byte) (sumaRojo[celda] / usos[celda]);
+            verde[i] = (byte) (sumaVerde[celda] / usos[celda]);
+            azul[i] = (byte) (sumaAzul[celda] / usos[celda]);
+            indice[celda] = i;
+        }
+        for (int i = colores; i < usadas.length; i++) {
+            int celda = usadas[i];
+            int r = (int) (sumaRojo[celda] / usos[celda]);
+            int g = (int) (sumaVerde[celda] / usos[celda]);
+            int b = (int) (sumaAzul[celda] / usos[celda]);
+            int mejor = 0;
+            int menorDistancia = Integer.MAX_VALUE;
+            for (int c = 0; c < colores; c++) {
+                int dr = r - (rojo[c] & 0xff);
+                int dg = g - (verde[c] & 0xff);
+                int db = b - (azul[c] & 0xff);
+                int distancia = dr * dr + dg * dg + db * db;
+                if (distancia < menorDistancia) {
+                    menorDistancia = distancia;
+                    mejor = c;
+                }
+            }
+            indice[celda] = mejor;
+        }
+
+        IndexColorModel paleta = new IndexColorModel(8, Math.max(1, colores), rojo, verde, azul);
+        BufferedImage indexada = new BufferedImage(ancho, alto, BufferedImage.TYPE_BYTE_INDEXED, paleta);
+        byte[] destino = ((DataBufferByte) indexada.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < pixeles.length; i++) {
+            destino[i] = (byte) indice[celda(pixeles[i])];
+        }
+        return indexada;
+    }
+
+    private static int celda(int pixel) {
+        return ((pixel >> 9) & 0x7c00) | ((pixel >> 6) & 0x3e0) | ((pixel >> 3) & 0x1f);
+    }
+}
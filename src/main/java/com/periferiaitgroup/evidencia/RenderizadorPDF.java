@@ -0,0 +1,120 @@
+package com.periferiaitgroup.evidencia;
+
+import com.itextpdf.text.DocumentException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Compone el reporte en pdf a partir del registro {@code eventos.jsonl} y las capturas de una carpeta de evidencia.
+ * El resultado es el mismo reporte que se obtiene con EVIDENCIA_FORMATOS=PDF, pero el costo de iText solo se paga
+ * cuando alguien necesita el pdf. La fecha, las horas de inicio y fin y el tiempo de ejecucion se toman de los momentos
+ * de los eventos INICIO y FIN, no de la hora en que se compone el pdf.
+ */
+class RenderizadorPDF {
+
+    protected static Logger log = LogManager.getLogger(RenderizadorPDF.class);
+
+    private static final Json JSON = new Json();
+
+    private RenderizadorPDF() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Compone el pdf de una carpeta de evidencia.
+     *
+     * @param carpeta La carpeta con el registro eventos.jsonl.
+     * @return El pdf generado o null si no se pudo generar.
+     */
+    static File renderizar(File carpeta) {
+        File eventos = new File(carpeta, SumideroJSONL.EVENTOS);
+        ReportePDF reporte = null;
+        Instant fin = null;
+        try (BufferedReader lector = Files.newBufferedReader(eventos.toPath(), StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                Map<String, Object> evento = JSON.toType(linea, Json.MAP_TYPE);
+                String tipo = texto(evento, "tipo");
+                Instant momento = momento(evento);
+                if ("INICIO".equals(tipo)) {
+                    reporte = ReportePDF.crear(carpeta, texto(evento, "prueba"), texto(evento, "analista"), texto(evento, "url"),
+                            momento == null ? Instant.now() : momento);
+                } else if (reporte != null) {
+                    agregar(reporte, carpeta, tipo, evento);
+                }
+                // Si la prueba no alcanzo a escribir el evento FIN se toma el ultimo evento registrado
+                if (momento != null) {
+                    fin = momento;
+                }
+            }
+        } catch (IOException | DocumentException | RuntimeException e) {
+            log.error("No se pudo componer el pdf desde {}: {}", eventos, e.getMessage());
+        } finally {
+            if (reporte != null) {
+                reporte.cerrar(fin == null ? Instant.now() : fin);
+            }
+        }
+        if (reporte == null) {
+            return null;
+        }
+        log.info("Se genero el reporte en pdf {}", reporte.getArchivo().getPath());
+        return reporte.getArchivo();
+    }
+
+    private static void agregar(ReportePDF reporte, File carpeta, String tipo, Map<String, Object> evento) throws IOException {
+        switch (tipo) {
+            case "ACCION" -> {
+                byte[] captura = captura(carpeta, evento);
+                if (captura != null) {
+                    reporte.agregarAccion(PreparadorImagen.preparar(captura, GenerarReportePDF::cajaAccion, null), texto(evento, "mensaje"));
+                }
+            }
+            case "ERROR" -> {
+                byte[] captura = captura(carpeta, evento);
+                if (captura != null) {
+                    reporte.agregarError(PreparadorImagen.preparar(captura, GenerarReportePDF::cajaError, null), texto(evento, "mensaje"), texto(evento, "detalle"));
+                }
+            }
+            case "SUGERENCIA" -> reporte.agregarSugerenciaOrtografia(texto(evento, "mensaje"), texto(evento, "detalle"));
+            default -> {
+            }
+        }
+    }
+
+    private static byte[] captura(File carpeta, Map<String, Object> evento) throws IOException {
+        String imagen = texto(evento, "imagen");
+        if (imagen == null) {
+            log.warn("El evento {} no tiene captura, se omite en el pdf", evento.get("secuencia"));
+            return null;
+        }
+        return Files.readAllBytes(new File(carpeta, imagen).toPath());
+    }
+
+    private static Instant momento(Map<String, Object> evento) {
+        String momento = texto(evento, "momento");
+        try {
+            return momento == null ? null : Instant.parse(momento);
+        } catch (DateTimeParseException e) {
+            log.warn("Momento invalido en el evento {}: {}", evento.get("secuencia"), momento);
+            return null;
+        }
+    }
+
+    private static String texto(Map<String, Object> evento, String clave) {
+        Object valor = evento.get(clave);
+        return valor == null ? null : String.valueOf(valor);
+    }
+}
@@ -0,0 +1,372 @@
+package com.periferiaitgroup.evidencia;
+
+import com.itextpdf.text.*;
+import com.itextpdf.text.pdf.*;
+import com.periferiaitgroup.utilities.TiempoEjecucion;
+import org.openqa.selenium.By;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Reporte en pdf de una sesion de prueba, con su propio documento, writer, contador de imagenes y tiempo de ejecucion.
+ * <br/>
+ * {@link GenerarEvidencia#iniciarEvidencia(String, String, String)} crea un reporte por prueba, por lo que varias
+ * pruebas pueden generar su reporte en paralelo o una tras otra en la misma JVM. Los metodos son sincronizados y el
+ * reporte puede recibir pasos desde varios hilos (por ejemplo desde el pipeline de evidencia).
+ * <br/>
+ * El uso de memoria no depende del numero de pasos: iText escribe el flujo de cada imagen en el archivo en cuanto se
+ * agrega al documento y el contenido de cada pagina al terminarla, solo conserva la tabla de referencias de los
+ * objetos ya escritos. La salida pasa por un buffer de 64 KB.
+ */
+public class ReportePDF {
+
+    private static final String MARCA_DE_AGUA_PNG = "./imagenes/marcaDeAgua.png";
+    private static final String LOGO_PNG = "./imagenes/logo.png";
+
+    private static final Font FONT_HEADER = FontFactory.getFont("ITALIC", 12, BaseColor.GRAY);
+    private static final Font FONT_MAIN = FontFactory.getFont("ARIAL", 12, BaseColor.BLACK);
+    private static final Font FONT_PAGINATION = FontFactory.getFont("ARIAL", 12, BaseColor.GRAY);
+    private static final Font FONT_ERROR = FontFactory.getFont("TIMES", 12, Font.NORMAL, BaseColor.RED);
+
+    private static final String FORMATO_FECHA = "HH:mm:ss";
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final Document documento = new Document();
+    private final File archivo;
+    private final PdfWriter writer;
+    private final Instant inicio;
+    private boolean abierto;
+    private int imgContador = 0;
+
+    private ReportePDF(File archivo, Instant inicio) throws IOException, DocumentException {
+        this.archivo = archivo;
+        this.inicio = inicio;
+        OutputStream salida = new BufferedOutputStream(new FileOutputStream(archivo), TAMANO_BUFFER);
+        this.writer = PdfWriter.getInstance(documento, salida);
+    }
+
+    /**
+     * Crea el reporte en la carpeta indicada y escribe su encabezado.
+     *
+     * @param carpeta     La carpeta donde se crea el pdf.
+     * @param nameTest    Nombre del test ejecutado.
+     * @param nameAnalyst Nombre del analista.
+     * @param url         Url de la pagina probada.
+     * @return El reporte abierto.
+     * @throws IOException       Si no se puede crear el archivo o cargar el logo.
+     * @throws DocumentException Si falla la escritura del encabezado.
+     */
+    public static ReportePDF crear(File carpeta, String nameTest, String nameAnalyst, String url) throws IOException, DocumentException {
+        return crear(carpeta, nameTest, nameAnalyst, url, Instant.now());
+    }
+
+    /**
+     * Crea el reporte de una ejecucion que empezo en el momento indicado, por ejemplo al componer el pdf despues de la
+     * prueba desde el registro de eventos. La fecha, la hora de inicio y el tiempo de ejecucion se calculan desde ese
+     * momento y no desde la hora en que se compone el pdf.
+     *
+     * @param inicio El momento en que empezo la prueba.
+     * @see #crear(File, String, String, String)
+     */
+    static ReportePDF crear(File carpeta, String nameTest, String nameAnalyst, String url, Instant inicio) throws IOException, DocumentException {
+        if (RecursosMarca.LOGO == null) {
+            throw new IOException("No fue posible cargar el logo " + LOGO_PNG);
+        }
+        String nameFile = nameTest + "_" + formatear(inicio, "HH-mm-ss") + ".pdf";
+        ReportePDF reporte = new ReportePDF(new File(carpeta, nameFile), inicio);
+        try {
+            reporte.escribirEncabezado(nameTest, nameAnalyst, url);
+        } catch (DocumentException | RuntimeException e) {
+            reporte.abierto = false;
+            reporte.documento.close();
+            throw e;
+        }
+        return reporte;
+    }
+
+    private void escribirEncabezado(String nameTest, String nameAnalyst, String url) throws DocumentException {
+        Image logoHeader = Image.getInstance(RecursosMarca.LOGO);
+        logoHeader.scalePercent(50);
+        logoHeader.setWidthPercentage(100);
+
+        Paragraph titulo = new Paragraph(
+                "Caso de Prueba: " + nameTest + "\n\nFecha Ejecucion: " + formatear(inicio, "dd/MM/yyyy")
+                        + "\nAnalista: " + nameAnalyst + "\nTipo de Prueba: Automatizada",
+                FONT_HEADER);
+        titulo.setAlignment(1);
+
+        Paragraph urlApp = new Paragraph("Url de prueba: " + url);
+        urlApp.setAlignment(Element.ALIGN_LEFT);
+        urlApp.setFont(FONT_MAIN);
+
+        Paragraph parrafoHoraInicio = new Paragraph("Hora de inicio: " + formatear(inicio, FORMATO_FECHA));
+        parrafoHoraInicio.setAlignment(Element.ALIGN_LEFT);
+        parrafoHoraInicio.setFont(FONT_MAIN);
+
+        PdfPTable table = new PdfPTable(2);
+        table.setWidthPercentage(100);
+
+        PdfPCell p1 = new PdfPCell(titulo);
+        p1.setHorizontalAlignment(1);
+        p1.setVerticalAlignment(2);
+        p1.setBorderColor(BaseColor.GRAY);
+
+        PdfPCell p2 = new PdfPCell(logoHeader);
+        p2.setHorizontalAlignment(1);
+        p2.setVerticalAlignment(2);
+        p2.setBorderColor(BaseColor.GRAY);
+        table.addCell(p2);
+        table.addCell(p1);
+
+        documento.setMargins(60, 40, 30, 30);
+        documento.open();
+        abierto = true;
+        documento.add(table);
+
+        writer.setPageEvent(new Footer(writer));
+
+        documento.add(urlApp);
+        documento.add(parrafoHoraInicio);
+    }
+
+    /**
+     * Agrega una accion con su captura.
+     *
+     * @param captura La captura en formato png.
+     * @param mensaje El mensaje de la accion.
+     */
+    public void agregarAccion(byte[] captura, String mensaje) {
+        agregarAccion(PreparadorImagen.preparar(captura, GenerarReportePDF::cajaAccion, null), mensaje);
+    }
+
+    synchronized void agregarAccion(CapturaPreparada captura, String mensaje) {
+        if (!abierto) {
+            return;
+        }
+
+        try {
+            Paragraph parrafo = new Paragraph();
+            parrafo.setAlignment(Element.ALIGN_LEFT);
+            parrafo.setFont(FONT_MAIN);
+            parrafo.add("\n\nAccion: " + mensaje + "\n");
+            documento.add(parrafo);
+
+            Image imagen = Image.getInstance(captura.datos());
+            imagen.scaleAbsolute(captura.anchoPt(), captura.altoPt());
+            imagen.setAlignment(Element.ALIGN_CENTER);
+            imagen.setBorder(Rectangle.BOX);
+            imagen.setBorderWidth(3);
+            imagen.setBorderColor(BaseColor.BLACK);
+            documento.add(imagen);
+            contarImagen();
+        }catch (DocumentException e) {
+            System.err.println("Falla al añadir el parrafo al pdf\n" + e);
+        }catch (IOException e) {
+            System.err.println("Algo fallo no fue posible obtener la imagen de la evidecia\n" + e);
+        }
+    }
+
+    /**
+     * Agrega la captura y el detalle de una accion fallida. El reporte sigue abierto para los pasos siguientes.
+     *
+     * @param captura      La captura en formato png.
+     * @param errorMessage El mensaje del error.
+     * @param locator      El localizador del elemento que genero el error.
+     */
+    public void agregarError(byte[] captura, String errorMessage, By locator) {
+        agregarError(PreparadorImagen.preparar(captura, GenerarReportePDF::cajaError, null), errorMessage, locator);
+    }
+
+    void agregarError(CapturaPreparada captura, String errorMessage, By locator) {
+        agregarError(captura, errorMessage, String.valueOf(locator));
+    }
+
+    /**
+     * Agrega un error cuyo localizador ya esta como texto, lo usa el render diferido desde el registro JSONL.
+     */
+    synchronized void agregarError(CapturaPreparada captura, String errorMessage, String locator) {
+        if (!abierto) {
+            return;
+        }
+
+        try {
+            Paragraph localizador = new Paragraph();
+            localizador.setAlignment(Element.ALIGN_LEFT);
+            localizador.setFont(FONT_MAIN);
+            localizador.add("Acción: " + locator);
+            documento.add(localizador);
+            Image imagen = Image.getInstance(captura.datos());
+            imagen.scaleAbsolute(captura.anchoPt(), captura.altoPt());
+            imagen.setAlignment(Element.ALIGN_CENTER);
+            documento.add(imagen);
+            contarImagen();
+            Paragraph elementoError = new Paragraph();
+            elementoError.setAlignment(Element.ALIGN_LEFT);
+            elementoError.setFont(FONT_ERROR);
+            elementoError.add("\nFallo al momento de interactuar con: " + locator + "\n");
+
+            Paragraph parrafoError = new Paragraph();
+            parrafoError.setAlignment(Element.ALIGN_LEFT);
+            parrafoError.setFont(FONT_ERROR);
+            parrafoError.add("\nMensaje de la accion fallida: " + errorMessage + "\n");
+            documento.add(elementoError);
+            documento.add(parrafoError);
+        }catch (DocumentException e) {
+            System.err.println("Falla al añadir el parrafo al pdf\n" + e);
+        }catch (IOException e) {
+            System.err.println("Algo fallo no fue posible obtener la imagen de la evidecia\n" + e);
+        }
+    }
+
+    /**
+     * Agrega una posible falta ortografica con sus sugerencias.
+     *
+     * @param palabraConError La palabra con error.
+     * @param sugerencias     Las sugerencias de correccion.
+     */
+    public synchronized void agregarSugerenciaOrtografia(String palabraConError, String sugerencias) {
+        if (!abierto) {
+            return;
+        }
+        try {
+            Paragraph title = new Paragraph();
+            title.setAlignment(Element.ALIGN_LEFT);
+            title.setFont(FONT_ERROR);
+            title.add("Posible falta ortográfica!!\n");
+            documento.add(title);
+
+            Paragraph parrafo = new Paragraph();
+            parrafo.setAlignment(Element.ALIGN_LEFT);
+            parrafo.setFont(FONT_MAIN);
+            parrafo.add(palabraConError + "\n" + sugerencias);
+
+            documento.add(parrafo);
+        } catch (DocumentException e) {
+            System.err.println("Falla al añadir el parrafo al pdf\n" + e);
+        }
+    }
+
+    /**
+     * Escribe la hora de finalizacion y el tiempo de ejecucion y cierra el documento. Si ya estaba cerrado no hace nada.
+     */
+    public void cerrar() {
+        cerrar(Instant.now());
+    }
+
+    /**
+     * Cierra el reporte de una ejecucion que termino en el momento indicado.
+     *
+     * @param fin El momento en que termino la prueba.
+     */
+    synchronized void cerrar(Instant fin) {
+        if (!abierto) {
+            return;
+        }
+        try {
+            Paragraph parrafo = new Paragraph();
+            parrafo.setAlignment(Element.ALIGN_RIGHT);
+            parrafo.setFont(FONT_MAIN);
+            parrafo.add("Hora de Finalización: " + formatear(fin, FORMATO_FECHA) + "\n");
+            parrafo.add("Tiempo de Ejecución: " + TiempoEjecucion.formatear(Duration.between(inicio, fin)) + "\n");
+            documento.add(Chunk.NEWLINE);
+            documento.add(parrafo);
+        } catch (DocumentException e) {
+            e.printStackTrace();
+        } finally {
+            abierto = false;
+            documento.close();
+        }
+    }
+
+    private static String formatear(Instant momento, String patron) {
+        return DateTimeFormatter.ofPattern(patron).format(momento.atZone(ZoneId.systemDefault()));
+    }
+
+    public synchronized boolean isAbierto() {
+        return abierto;
+    }
+
+    public File getArchivo() {
+        return archivo;
+    }
+
+    private void contarImagen() {
+        imgContador = imgContador + 1;
+        if (imgContador == 2) {
+            documento.newPage();
+            imgContador = 0;
+        }
+    }
+
+    /**
+     * Imagenes de marca (logo y marca de agua) cargadas y decodificadas una sola vez por JVM. Cada reporte trabaja
+     * sobre una copia con {@link Image#getInstance(Image)} para no compartir el escalado entre documentos.
+     */
+    private static final class RecursosMarca {
+        private static final Image LOGO = cargar(LOGO_PNG);
+        private static final Image MARCA_DE_AGUA = cargar(MARCA_DE_AGUA_PNG);
+
+        private static Image cargar(String ruta) {
+            try {
+                return Image.getInstance(ruta);
+            } catch (IOException | DocumentException e) {
+                System.err.println("No fue posible cargar la imagen " + ruta + "\n" + e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Pie de pagina con la paginacion y la marca de agua. La marca de agua se escribe una sola vez por documento
+     * como un XObject ({@link PdfTemplate}) que todas las paginas referencian.
+     */
+    private static class Footer extends PdfPageEventHelper {
+        private final PdfTemplate marcaDeAgua;
+        private final PdfGState trans = new PdfGState();
+
+        private Footer(PdfWriter writer) {
+            trans.setFillOpacity(1f);
+            marcaDeAgua = crearMarcaDeAgua(writer);
+        }
+
+        private static PdfTemplate crearMarcaDeAgua(PdfWriter writer) {
+            if (RecursosMarca.MARCA_DE_AGUA == null) {
+                return null;
+            }
+            try {
+                Image logoFooter = Image.getInstance(RecursosMarca.MARCA_DE_AGUA);
+                logoFooter.scalePercent(23);
+                logoFooter.setAbsolutePosition(0, 0);
+                PdfTemplate plantilla = writer.getDirectContentUnder().createTemplate(logoFooter.getScaledWidth(), logoFooter.getScaledHeight());
+                plantilla.addImage(logoFooter);
+                return plantilla;
+            } catch (DocumentException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            float pageWidthHalf = (document.getPageSize().getLeft() + document.getPageSize().getRight()) / 2;
+
+            ColumnText.showTextAligned(writer.getDirectContent(), Element.ALIGN_CENTER,
+                    new Phrase("Pagina: " + writer.getPageNumber(), FONT_PAGINATION), pageWidthHalf, 20, 0);
+            if (marcaDeAgua != null) {
+                PdfContentByte cb = writer.getDirectContentUnder();
+                cb.saveState();
+                cb.setGState(trans);
+                cb.addTemplate(marcaDeAgua, 0, 0);
+                cb.restoreState();
+            }
+        }
+    }
+}
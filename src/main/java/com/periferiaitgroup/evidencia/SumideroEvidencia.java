@@ -0,0 +1,40 @@
+package com.periferiaitgroup.evidencia;
+
+/**
+ * Destino de la evidencia de una sesion (pdf, JSONL, HTML).
+ * <br/>
+ * {@link #escribir(PasoEvidencia)} y {@link #cerrar(boolean)} se llaman desde el pipeline de evidencia, en el orden en
+ * que la prueba registro los pasos y nunca en paralelo para la misma sesion.
+ */
+interface SumideroEvidencia {
+
+    /**
+     * Indica si el sumidero referencia las capturas como archivos, en ese caso la sesion guarda cada captura en la
+     * carpeta de evidencia antes de escribir el paso.
+     */
+    default boolean requiereImagenes() {
+        return false;
+    }
+
+    /**
+     * Se llama en el hilo de la prueba en cuanto se toma la captura, permite adelantar trabajo en paralelo.
+     *
+     * @param paso El paso recien capturado.
+     */
+    default void anticipar(PasoEvidencia paso) {
+    }
+
+    /**
+     * Escribe un paso de la evidencia.
+     *
+     * @param paso El paso a escribir.
+     */
+    void escribir(PasoEvidencia paso);
+
+    /**
+     * Cierra el sumidero al finalizar la evidencia.
+     *
+     * @param conFallos Si la prueba registro al menos un error.
+     */
+    void cerrar(boolean conFallos);
+}
@@ -0,0 +1,106 @@
+package com.periferiaitgroup.evidencia;
+
+import com.periferiaitgroup.utilities.HoraSistema;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Sumidero que escribe la evidencia como una pagina estatica {@code index.html}. Las capturas quedan como png en la
+ * misma carpeta, por lo que la carpeta se puede abrir o publicar tal cual sin ningun proceso adicional.
+ */
+class SumideroHTML implements SumideroEvidencia {
+
+    protected static Logger log = LogManager.getLogger(SumideroHTML.class);
+
+    static final String INDICE = "index.html";
+
+    private final File carpeta;
+    private BufferedWriter salida;
+
+    SumideroHTML(File carpeta, String nameTest, String nameAnalyst, String url) {
+        this.carpeta = carpeta;
+        try {
+            salida = Files.newBufferedWriter(new File(carpeta, INDICE).toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.error("No se pudo crear el reporte html en {}: {}", carpeta, e.getMessage());
+        }
+        escribir("""
+                <!DOCTYPE html>
+                <html lang="es">
+                <head>
+                <meta charset="utf-8">
+                <title>%1$s</title>
+                <style>
+                body{font-family:Arial,sans-serif;margin:2em;color:#222}
+                header{border-bottom:1px solid #999;margin-bottom:1em}
+                section{margin:1.5em 0}
+                img{max-width:100%%;border:3px solid #000}
+                .error{color:#c00}
+                </style>
+                </head>
+                <body>
+                <header>
+                <h1>Caso de Prueba: %1$s</h1>
+                <p>Fecha Ejecucion: %2$s<br>Analista: %3$s<br>Tipo de Prueba: Automatizada</p>
+                <p>Url de prueba: %4$s<br>Hora de inicio: %5$s</p>
+                </header>
+                """.formatted(escapar(nameTest), HoraSistema.currentDate("dd/MM/yyyy"), escapar(nameAnalyst),
+                escapar(url), HoraSistema.currentDate("HH:mm:ss")));
+    }
+
+    @Override
+    public boolean requiereImagenes() {
+        return true;
+    }
+
+    @Override
+    public void escribir(PasoEvidencia paso) {
+        String imagen = paso.imagen() == null ? "" : "<img src=\"" + escapar(paso.imagen().getName()) + "\" alt=\"captura " + paso.secuencia() + "\">\n";
+        switch (paso.tipo()) {
+            case ACCION -> escribir("<section>\n<p>Accion: " + escapar(paso.mensaje()) + "</p>\n" + imagen + "</section>\n");
+            case ERROR -> escribir("<section class=\"error\">\n<p>Accion: " + escapar(paso.detalle()) + "</p>\n" + imagen
+                    + "<p>Fallo al momento de interactuar con: " + escapar(paso.detalle()) + "</p>\n"
+                    + "<p>Mensaje de la accion fallida: " + escapar(paso.mensaje()) + "</p>\n</section>\n");
+            case SUGERENCIA -> escribir("<section class=\"error\">\n<p>Posible falta ortografica!!</p>\n<p>"
+                    + escapar(paso.mensaje()) + "<br>" + escapar(paso.detalle()) + "</p>\n</section>\n");
+        }
+    }
+
+    @Override
+    public void cerrar(boolean conFallos) {
+        escribir("<footer><p>Hora de Finalizacion: " + HoraSistema.currentDate("HH:mm:ss") + "</p></footer>\n</body>\n</html>\n");
+        if (salida != null) {
+            try {
+                salida.close();
+            } catch (IOException e) {
+                log.error("No se pudo cerrar el reporte html en {}: {}", carpeta, e.getMessage());
+            }
+            salida = null;
+        }
+    }
+
+    private void escribir(String html) {
+        if (salida == null) {
+            return;
+        }
+        try {
+            salida.write(html);
+            salida.flush();
+        } catch (IOException e) {
+            log.error("No se pudo escribir el reporte html en {}: {}", carpeta, e.getMessage());
+        }
+    }
+
+    private static String escapar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        return texto.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
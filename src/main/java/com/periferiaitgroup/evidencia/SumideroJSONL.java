@@ -0,0 +1,113 @@
+package com.periferiaitgroup.evidencia;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sumidero que escribe la evidencia como un registro de eventos en {@code eventos.jsonl}, un objeto JSON por linea.
+ * Las capturas quedan como png en la carpeta de evidencia y cada evento referencia su imagen.
+ * <br/>
+ * La primera linea (INICIO) guarda los datos del encabezado y la ultima (FIN) el resultado, con eso
+ * {@link RenderizadorPDF} puede componer el pdf despues de la ejecucion. Con EVIDENCIA_PDF_DIFERIDO=true el pdf se
+ * compone al cerrar solo si la prueba registro errores.
+ */
+class SumideroJSONL implements SumideroEvidencia {
+
+    protected static Logger log = LogManager.getLogger(SumideroJSONL.class);
+
+    static final String EVENTOS = "eventos.jsonl";
+
+    private static final Json JSON = new Json();
+
+    private final File carpeta;
+    private final boolean pdfDiferido;
+    private BufferedWriter salida;
+
+    SumideroJSONL(File carpeta, String nameTest, String nameAnalyst, String url, boolean pdfDiferido) {
+        this.carpeta = carpeta;
+        this.pdfDiferido = pdfDiferido;
+        try {
+            salida = Files.newBufferedWriter(new File(carpeta, EVENTOS).toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.error("No se pudo crear el registro de eventos en {}: {}", carpeta, e.getMessage());
+        }
+        Map<String, Object> inicio = evento("INICIO", Instant.now());
+        inicio.put("prueba", nameTest);
+        inicio.put("analista", nameAnalyst);
+        inicio.put("url", url);
+        escribirLinea(inicio);
+    }
+
+    @Override
+    public boolean requiereImagenes() {
+        return true;
+    }
+
+    @Override
+    public void escribir(PasoEvidencia paso) {
+        Map<String, Object> evento = evento(paso.tipo().name(), paso.momento());
+        if (paso.secuencia() > 0) {
+            evento.put("secuencia", paso.secuencia());
+        }
+        evento.put("mensaje", paso.mensaje());
+        if (paso.detalle() != null) {
+            evento.put("detalle", paso.detalle());
+        }
+        if (paso.imagen() != null) {
+            evento.put("imagen", paso.imagen().getName());
+        }
+        escribirLinea(evento);
+    }
+
+    @Override
+    public void cerrar(boolean conFallos) {
+        Map<String, Object> fin = evento("FIN", Instant.now());
+        fin.put("fallos", conFallos);
+        escribirLinea(fin);
+        if (salida != null) {
+            try {
+                salida.close();
+            } catch (IOException e) {
+                log.error("No se pudo cerrar el registro de eventos en {}: {}", carpeta, e.getMessage());
+            }
+            salida = null;
+        }
+        if (pdfDiferido && conFallos) {
+            RenderizadorPDF.renderizar(carpeta);
+        }
+    }
+
+    private static Map<String, Object> evento(String tipo, Instant momento) {
+        Map<String, Object> evento = new LinkedHashMap<>();
+        evento.put("tipo", tipo);
+        evento.put("momento", momento.toString());
+        return evento;
+    }
+
+    /**
+     * Cada linea se vacia al archivo en cuanto se escribe, si la JVM termina a mitad de la prueba el registro
+     * conserva los pasos anteriores.
+     */
+    private void escribirLinea(Map<String, Object> evento) {
+        if (salida == null) {
+            return;
+        }
+        try {
+            salida.write(JSON.toJson(evento).replace("\r", "").replace("\n", ""));
+            salida.newLine();
+            salida.flush();
+        } catch (IOException e) {
+            log.error("No se pudo escribir el evento {} en {}: {}", evento.get("tipo"), carpeta, e.getMessage());
+        }
+    }
+}
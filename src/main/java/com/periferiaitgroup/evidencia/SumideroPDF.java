@@ -0,0 +1,61 @@
+package com.periferiaitgroup.evidencia;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sumidero que compone el reporte en pdf durante la ejecucion. La preparacion de cada captura empieza en el hilo de
+ * la prueba ({@link #anticipar(PasoEvidencia)}) y el pipeline solo espera su resultado al escribir el paso.
+ */
+class SumideroPDF implements SumideroEvidencia {
+
+    protected static Logger log = LogManager.getLogger(SumideroPDF.class);
+
+    private final ReportePDF reporte;
+    private final EstadisticasImagenes imagenes = new EstadisticasImagenes();
+    private final Map<Long, CompletableFuture<CapturaPreparada>> preparadas = new ConcurrentHashMap<>();
+
+    SumideroPDF(ReportePDF reporte) {
+        this.reporte = reporte;
+    }
+
+    @Override
+    public void anticipar(PasoEvidencia paso) {
+        switch (paso.tipo()) {
+            case ACCION -> preparadas.put(paso.secuencia(), PreparadorImagen.prepararAsync(paso.captura(), GenerarReportePDF::cajaAccion, imagenes));
+            case ERROR -> preparadas.put(paso.secuencia(), PreparadorImagen.prepararAsync(paso.captura(), GenerarReportePDF::cajaError, imagenes));
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void escribir(PasoEvidencia paso) {
+        switch (paso.tipo()) {
+            case ACCION -> reporte.agregarAccion(preparada(paso), paso.mensaje());
+            case ERROR -> reporte.agregarError(preparada(paso), paso.mensaje(), paso.detalle());
+            case SUGERENCIA -> reporte.agregarSugerenciaOrtografia(paso.mensaje(), paso.detalle());
+        }
+    }
+
+    @Override
+    public void cerrar(boolean conFallos) {
+        reporte.cerrar();
+        if (imagenes.getImagenes() > 0) {
+            log.info("Capturas del reporte: {}", imagenes);
+        }
+    }
+
+    private CapturaPreparada preparada(PasoEvidencia paso) {
+        CompletableFuture<CapturaPreparada> preparada = preparadas.remove(paso.secuencia());
+        if (preparada != null) {
+            return preparada.join();
+        }
+        return PreparadorImagen.preparar(paso.captura(),
+                paso.tipo() == PasoEvidencia.Tipo.ERROR ? GenerarReportePDF::cajaError : GenerarReportePDF::cajaAccion, imagenes);
+    }
+}
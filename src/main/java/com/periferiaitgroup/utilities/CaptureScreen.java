@@ -1,30 +1,61 @@
 package com.periferiaitgroup.utilities;
 
 import com.epam.healenium.SelfHealingDriver;
-import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class CaptureScreen {
-    public static String captureScreen(WebDriver driver, File rutaCarpeta) {
-        String hora = HoraSistema.currentDate("HH-mm-ss");
 
-        WebDriver delegatedDriver = ((SelfHealingDriver) driver).getDelegate();
+    private static final AtomicLong CONSECUTIVO = new AtomicLong();
 
-        File srcFile = ((TakesScreenshot) delegatedDriver).getScreenshotAs(OutputType.FILE);
+    /**
+     * Toma una captura de pantalla y la guarda como png en la carpeta indicada.
+     *
+     * @param driver      El driver del que se toma la captura.
+     * @param rutaCarpeta La carpeta donde se guarda la imagen.
+     * @return La ruta de la imagen guardada.
+     */
+    public static String captureScreen(WebDriver driver, File rutaCarpeta) {
+        return guardarCaptura(capturarBytes(driver), rutaCarpeta);
+    }
+
+    /**
+     * Toma la captura de pantalla en memoria, sin escribir archivos temporales.
+     *
+     * @param driver El driver del que se toma la captura.
+     * @return Los bytes de la imagen en formato png.
+     */
+    public static byte[] capturarBytes(WebDriver driver) {
+        WebDriver delegatedDriver = driver instanceof SelfHealingDriver healingDriver ? healingDriver.getDelegate() : driver;
+        return ((TakesScreenshot) delegatedDriver).getScreenshotAs(OutputType.BYTES);
+    }
 
-        String pathImage = rutaCarpeta + "\\" + hora + ".png";
+    /**
+     * Guarda en la carpeta de evidencia una captura tomada con {@link #capturarBytes(WebDriver)}.
+     * <br/>
+     * El nombre combina la hora con milisegundos y un consecutivo de la JVM, por lo que capturas tomadas en el mismo
+     * segundo o desde varios hilos no se sobrescriben. La escritura es atomica.
+     *
+     * @param captura     Los bytes de la imagen en formato png.
+     * @param rutaCarpeta La carpeta donde se guarda la imagen.
+     * @return La ruta de la imagen guardada.
+     */
+    public static String guardarCaptura(byte[] captura, File rutaCarpeta) {
+        String hora = HoraSistema.currentDate("HH-mm-ss-SSS");
+
+        File imagen = new File(rutaCarpeta, hora + "_" + String.format("%06d", CONSECUTIVO.incrementAndGet()) + ".png");
 
         try {
-            FileUtils.copyFile(srcFile, new File(pathImage));
+            GestorArchivos.escribirArchivoAtomico(imagen.toPath(), captura);
         }catch (IOException e){
-            System.out.println("Falla al tomar la captura de pantalla\n" + e);
+            System.out.println("Falla al guardar la captura de pantalla\n" + e);
         }
 
-        return new File(pathImage).toString();
+        return imagen.toString();
     }
 }
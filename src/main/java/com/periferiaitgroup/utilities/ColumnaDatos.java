@@ -0,0 +1,334 @@
+package com.periferiaitgroup.utilities;
+
+import com.periferiaitgroup.constantes.TipoColumna;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Columna de una {@link TablaDatos}, guarda los valores en un arreglo primitivo del tipo inferido.
+ * <br/>
+ * La columna se arma a partir de los codigos de diccionario de cada celda: el tipo se infiere solo sobre los valores
+ * distintos de la columna y cada valor distinto se convierte una sola vez. El codigo 0 representa una celda vacia.
+ * <br/>
+ * Una columna solo es numerica si todos sus valores estan escritos en forma canonica, es decir, si al convertirlos y
+ * volverlos a texto se obtiene el mismo texto: "007", "10.50", "+3", " 5", "1d", "NaN" o "Infinity" dejan la columna
+ * como TEXTO, asi no se pierden ceros de documentos o cuentas. Las fechas siguen la misma regla, deben existir en el
+ * calendario y toda la columna debe usar un solo formato. Los codigos y el diccionario se conservan en todas las
+ * columnas, por lo que el texto original de cada celda siempre se puede recuperar.
+ */
+abstract sealed class ColumnaDatos permits ColumnaDatos.Entera, ColumnaDatos.Larga, ColumnaDatos.Decimal,
+        ColumnaDatos.Booleana, ColumnaDatos.Fecha, ColumnaDatos.Texto {
+
+    private static final Pattern DECIMAL_CANONICO = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]*[1-9])?");
+    private static final List<DateTimeFormatter> FORMATOS_FECHA = List.of(
+            formatoEstricto("uuuu-MM-dd"), formatoEstricto("dd/MM/uuuu"), formatoEstricto("M/d/uu"));
+
+    /** Filas sin valor. */
+    final BitSet nulos;
+    /** Codigo de diccionario de cada fila. */
+    final int[] codigos;
+    /** Texto original de cada codigo, la posicion 0 es la celda vacia. */
+    final String[] diccionario;
+
+    private ColumnaDatos(BitSet nulos, int[] codigos, String[] diccionario) {
+        this.nulos = nulos;
+        this.codigos = codigos;
+        this.diccionario = diccionario;
+    }
+
+    abstract TipoColumna tipo();
+
+    /**
+     * El valor de la fila como objeto (Integer, Long, Double, Boolean, LocalDate o String), null si la celda esta vacia.
+     */
+    abstract Object valor(int fila);
+
+    /**
+     * El texto original de la celda, "" si la celda esta vacia.
+     */
+    String texto(int fila) {
+        return diccionario[codigos[fila]];
+    }
+
+    /**
+     * La misma columna como TEXTO, sin copiar los datos.
+     */
+    Texto comoTexto() {
+        return this instanceof Texto texto ? texto : new Texto(nulos, codigos, diccionario);
+    }
+
+    /**
+     * Arma la columna con el tipo mas especifico que aceptan todos los valores del diccionario.
+     *
+     * @param codigos     El codigo de diccionario de cada fila.
+     * @param filas       El numero de filas.
+     * @param diccionario Los valores distintos, la posicion 0 es la celda vacia.
+     */
+    static ColumnaDatos crear(int[] codigos, int filas, List<String> diccionario) {
+        BitSet nulos = new BitSet(filas);
+        for (int i = 0; i < filas; i++) {
+            if (codigos[i] == 0) {
+                nulos.set(i);
+            }
+        }
+        int[] codigosFilas = codigos.length == filas ? codigos : Arrays.copyOf(codigos, filas);
+        String[] textos = diccionario.toArray(new String[0]);
+        int distintos = textos.length;
+
+        int[] enteros = new int[distintos];
+        long[] largos = new long[distintos];
+        boolean sonEnteros = true;
+        boolean sonLargos = true;
+        for (int c = 1; c < distintos && sonLargos; c++) {
+            Long largo = largoCanonico(textos[c]);
+            sonLargos = largo != null;
+            if (sonLargos) {
+                largos[c] = largo;
+                enteros[c] = (int) largos[c];
+                sonEnteros &= largos[c] == enteros[c];
+            } else {
+                sonEnteros = false;
+            }
+        }
+        if (sonEnteros) {
+            int[] valores = new int[filas];
+            for (int i = 0; i < filas; i++) {
+                valores[i] = enteros[codigosFilas[i]];
+            }
+            return new Entera(nulos, codigosFilas, textos, valores);
+        }
+        if (sonLargos) {
+            long[] valores = new long[filas];
+            for (int i = 0; i < filas; i++) {
+                valores[i] = largos[codigosFilas[i]];
+            }
+            return new Larga(nulos, codigosFilas, textos, valores);
+        }
+
+        double[] decimales = new double[distintos];
+        boolean sonDecimales = true;
+        for (int c = 1; c < distintos && sonDecimales; c++) {
+            Double decimal = decimalCanonico(textos[c]);
+            sonDecimales = decimal != null;
+            decimales[c] = sonDecimales ? decimal : 0;
+        }
+        if (sonDecimales) {
+            double[] valores = new double[filas];
+            for (int i = 0; i < filas; i++) {
+                valores[i] = decimales[codigosFilas[i]];
+            }
+            return new Decimal(nulos, codigosFilas, textos, valores);
+        }
+
+        boolean[] booleanos = new boolean[distintos];
+        boolean sonBooleanos = true;
+        for (int c = 1; c < distintos && sonBooleanos; c++) {
+            String valor = textos[c];
+            booleanos[c] = valor.equalsIgnoreCase("true");
+            sonBooleanos = booleanos[c] || valor.equalsIgnoreCase("false");
+        }
+        if (sonBooleanos) {
+            BitSet valores = new BitSet(filas);
+            for (int i = 0; i < filas; i++) {
+                valores.set(i, booleanos[codigosFilas[i]]);
+            }
+            return new Booleana(nulos, codigosFilas, textos, valores);
+        }
+
+        int[] fechas = fechas(textos, distintos);
+        if (fechas != null) {
+            int[] valores = new int[filas];
+            for (int i = 0; i < filas; i++) {
+                valores[i] = fechas[codigosFilas[i]];
+            }
+            return new Fecha(nulos, codigosFilas, textos, valores);
+        }
+
+        return new Texto(nulos, codigosFilas, textos);
+    }
+
+    /**
+     * El valor entero del texto si esta escrito en forma canonica (sin signo +, ceros a la izquierda ni espacios).
+     */
+    private static Long largoCanonico(String valor) {
+        try {
+            long largo = Long.parseLong(valor);
+            return Long.toString(largo).equals(valor) ? largo : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * El valor decimal del texto si esta escrito en notacion decimal simple ("-12.5", "0.25", "3") sin ceros de mas y
+     * el double lo representa sin perder digitos. Descarta sufijos como "1d", "NaN", "Infinity" y la notacion
+     * cientifica.
+     */
+    private static Double decimalCanonico(String valor) {
+        if (!DECIMAL_CANONICO.matcher(valor).matches()) {
+            return null;
+        }
+        double decimal = Double.parseDouble(valor);
+        return new BigDecimal(valor).compareTo(new BigDecimal(Double.toString(decimal))) == 0 ? decimal : null;
+    }
+
+    private static DateTimeFormatter formatoEstricto(String patron) {
+        return DateTimeFormatter.ofPattern(patron).withResolverStyle(ResolverStyle.STRICT);
+    }
+
+    /**
+     * Los dias desde 1970-01-01 de cada valor distinto si todos son fechas validas escritas en forma canonica con un
+     * mismo formato, asi una columna no mezcla "01/02/2024" (dia primero) con "1/2/24" (mes primero) y "31/02/2024"
+     * no se ajusta a otra fecha.
+     *
+     * @return Los dias por codigo de diccionario o null si la columna no es de fechas.
+     */
+    private static int[] fechas(String[] textos, int distintos) {
+        for (DateTimeFormatter formato : FORMATOS_FECHA) {
+            int[] fechas = new int[distintos];
+            boolean sonFechas = true;
+            for (int c = 1; c < distintos && sonFechas; c++) {
+                LocalDate fecha = fechaCanonica(textos[c], formato);
+                sonFechas = fecha != null;
+                fechas[c] = sonFechas ? (int) fecha.toEpochDay() : 0;
+            }
+            if (sonFechas) {
+                return fechas;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * La fecha del texto si existe en el calendario y al volverla a texto con el mismo formato se obtiene el mismo
+     * texto (descarta "2024-2-5" o " 2024-02-05").
+     */
+    private static LocalDate fechaCanonica(String valor, DateTimeFormatter formato) {
+        try {
+            LocalDate fecha = LocalDate.parse(valor, formato);
+            return formato.format(fecha).equals(valor) ? fecha : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    static final class Entera extends ColumnaDatos {
+        final int[] valores;
+
+        private Entera(BitSet nulos, int[] codigos, String[] diccionario, int[] valores) {
+            super(nulos, codigos, diccionario);
+            this.valores = valores;
+        }
+
+        @Override
+        TipoColumna tipo() {
+            return TipoColumna.ENTERO;
+        }
+
+        @Override
+        Object valor(int fila) {
+            return nulos.get(fila) ? null : valores[fila];
+        }
+    }
+
+    static final class Larga extends ColumnaDatos {
+        final long[] valores;
+
+        private Larga(BitSet nulos, int[] codigos, String[] diccionario, long[] valores) {
+            super(nulos, codigos, diccionario);
+            this.valores = valores;
+        }
+
+        @Override
+        TipoColumna tipo() {
+            return TipoColumna.LARGO;
+        }
+
+        @Override
+        Object valor(int fila) {
+            return nulos.get(fila) ? null : valores[fila];
+        }
+    }
+
+    static final class Decimal extends ColumnaDatos {
+        final double[] valores;
+
+        private Decimal(BitSet nulos, int[] codigos, String[] diccionario, double[] valores) {
+            super(nulos, codigos, diccionario);
+            this.valores = valores;
+        }
+
+        @Override
+        TipoColumna tipo() {
+            return TipoColumna.DECIMAL;
+        }
+
+        @Override
+        Object valor(int fila) {
+            return nulos.get(fila) ? null : valores[fila];
+        }
+    }
+
+    static final class Booleana extends ColumnaDatos {
+        final BitSet valores;
+
+        private Booleana(BitSet nulos, int[] codigos, String[] diccionario, BitSet valores) {
+            super(nulos, codigos, diccionario);
+            this.valores = valores;
+        }
+
+        @Override
+        TipoColumna tipo() {
+            return TipoColumna.BOOLEANO;
+        }
+
+        @Override
+        Object valor(int fila) {
+            return nulos.get(fila) ? null : valores.get(fila);
+        }
+    }
+
+    static final class Fecha extends ColumnaDatos {
+        /** Dias desde 1970-01-01. */
+        final int[] valores;
+
+        private Fecha(BitSet nulos, int[] codigos, String[] diccionario, int[] valores) {
+            super(nulos, codigos, diccionario);
+            this.valores = valores;
+        }
+
+        @Override
+        TipoColumna tipo() {
+            return TipoColumna.FECHA;
+        }
+
+        @Override
+        Object valor(int fila) {
+            return nulos.get(fila) ? null : LocalDate.ofEpochDay(valores[fila]);
+        }
+    }
+
+    static final class Texto extends ColumnaDatos {
+        private Texto(BitSet nulos, int[] codigos, String[] diccionario) {
+            super(nulos, codigos, diccionario);
+        }
+
+        @Override
+        TipoColumna tipo() {
+            return TipoColumna.TEXTO;
+        }
+
+        @Override
+        Object valor(int fila) {
+            return nulos.get(fila) ? null : diccionario[codigos[fila]];
+        }
+    }
+}
@@ -3,10 +3,12 @@ package com.periferiaitgroup.utilities;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.regex.Pattern;
@@ -27,11 +29,35 @@ public class GestorArchivos {
      */
     public static File crearCarpetaEvidencia(String rutaEvidencia, String nameCarpeta) {
         File directorio = new File(rutaEvidencia + nameCarpeta + "_" + HoraSistema.currentDate("dd-MM-yyyy"));
-        directorio.mkdir();
+        directorio.mkdirs();
 
         return directorio;
     }
 
+    /**
+     * Escribe un archivo de forma atomica: el contenido se escribe en un archivo temporal de la misma carpeta y luego
+     * se mueve al destino, por lo que nunca queda un archivo a medio escribir con el nombre final.
+     *
+     * @param destino   La ruta del archivo a escribir.
+     * @param contenido El contenido del archivo.
+     * @throws IOException Si ocurre un error de E/S.
+     */
+    public static void escribirArchivoAtomico(Path destino, byte[] contenido) throws IOException {
+        Path directorio = destino.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, destino.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporal, contenido);
+            try {
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
     /**
      * Elimina un directorio y su contenido.
      *
@@ -1,35 +1,58 @@
 package com.periferiaitgroup.utilities;
 
-import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+/**
+ * Lectura de archivos CSV para datos de prueba. Todos los metodos usan el mismo motor de lectura en streaming
+ * ({@link LectorCSV}) con el separador configurado y la codificacion de CSV_CHARSET (por defecto UTF-8).
+ * <br/>
+ * Los data providers de archivos de CSV_PARALELO_MB o mas se leen con {@link LectorCSVParalelo}, que mapea el archivo
+ * en memoria y separa los bloques en paralelo manteniendo el orden de las filas.
+ */
 public class GestorArchivosCSV {
-    private final String separator;
+    private static final Charset CHARSET = Charset.forName(PropertyFileReader.obtenerPropiedad("CSV_CHARSET", "UTF-8"));
+    private static final long UMBRAL_PARALELO = PropertyFileReader.obtenerPropiedad("CSV_PARALELO_MB", 64) * 1024L * 1024L;
+    private final char separator;
 
     /**
      * Constructor por defecto de la clase Gestor de Archivos CSV.
      * Separa los elementos dentro del CSV con una coma ','.
      */
     public GestorArchivosCSV() {
-        this.separator = ",";
+        this.separator = ',';
     }
 
     /**
      * Constructor para la clase GestorArchivosCSV.
-     * Separa los elementos dentro del CSV con el carácter especificado.
+     * Separa los elementos dentro del CSV con el carácter especificado. Por compatibilidad con las versiones que
+     * separaban con una expresion regular se acepta un solo caracter escapado, por ejemplo "\\|" o "\\t".
      *
      * @param separator el carácter que se utilizará como separador en el archivo CSV
+     * @throws IllegalArgumentException si el separador no es un solo caracter ni un caracter escapado
      */
     public GestorArchivosCSV(String separator) {
-        this.separator = separator;
+        this.separator = desescapar(separator);
+    }
+
+    private static char desescapar(String separator) {
+        if (separator != null && separator.length() == 1) {
+            return separator.charAt(0);
+        }
+        if (separator != null && separator.length() == 2 && separator.charAt(0) == '\\') {
+            char escapado = separator.charAt(1);
+            return escapado == 't' ? '\t' : escapado;
+        }
+        throw new IllegalArgumentException("El separador debe ser un solo caracter (o un caracter escapado como \"\\\\|\"),"
+                + " las expresiones regulares ya no se admiten: " + separator);
     }
 
     /**
@@ -41,24 +64,11 @@ public class GestorArchivosCSV {
      * @throws IOException            si hay un error al leer el archivo CSV
      */
     public List<String> leerCSV(File archivoCSV) throws CsvValidationException, IOException {
-        List<String> valores = new ArrayList<>();
-        try (CSVReader csvReader = new CSVReader(new FileReader(archivoCSV))) {
-            String[] filas;
-            while ((filas = csvReader.readNext()) != null) {
-                for (String fila : filas) {
-                    String[] seccion = fila.split(this.separator);
-                    Collections.addAll(valores, seccion);
-                }
-            }
-
-            csvReader.close();
-        } catch (IOException e) {
+        try {
+            return leerValores(archivoCSV);
+        } catch (IOException | UncheckedIOException e) {
             throw new IOException("Error al leer el archivo CSV.", e);
-        } catch (CsvValidationException e) {
-            throw new CsvValidationException("Error al validar el archivo CSV");
         }
-
-        return valores;
     }
 
     /**
@@ -71,90 +81,107 @@ public class GestorArchivosCSV {
      * @throws IOException            si hay un error al leer el archivo CSV
      */
     public List<String> leerCSV(String carpetaPadre, String nombreArchivo) throws CsvValidationException, IOException {
-        List<String> valores = new ArrayList<>();
-
-        File file = new File(carpetaPadre, nombreArchivo);
-        try (CSVReader csvReader = new CSVReader(new FileReader(file))) {
-            String[] filas;
-            while ((filas = csvReader.readNext()) != null) {
-                for (String fila : filas) {
-                    String[] seccion = fila.split(this.separator);
-                    Collections.addAll(valores, seccion);
-                }
-            }
-
-            csvReader.close();
-        } catch (IOException e) {
+        try {
+            return leerValores(new File(carpetaPadre, nombreArchivo));
+        } catch (IOException | UncheckedIOException e) {
             throw new IOException("Error al leer el archivo encontrado en " + carpetaPadre + nombreArchivo + " CSV.", e);
-        } catch (CsvValidationException e) {
-            throw new CsvValidationException("Error al validar el archivo encontrado en " + carpetaPadre + nombreArchivo + " CSV");
         }
-
-        return valores;
     }
 
+    /**
+     * Entrega las filas de datos del archivo (sin el encabezado) de forma perezosa para un {@code @DataProvider}.
+     * El archivo se lee a medida que TestNG pide las filas y se cierra al llegar al final. Los archivos de
+     * CSV_PARALELO_MB o mas se leen en paralelo, en el mismo orden.
+     *
+     * @param archivoCSV - el {@code File} a leer
+     * @return las filas de datos del archivo
+     * @throws IOException si no se puede abrir el archivo
+     */
     public Iterator<Object[]> dataProviderFromCSV(File archivoCSV) throws IOException {
-        List<Object[]> data = new ArrayList<>();
-
-        try (CSVReader reader = new CSVReader(new FileReader(archivoCSV))) {
-            String[] line;
-            boolean firstLine = true;
-            while ((line = reader.readNext()) != null) {
-                if (firstLine) {
-                    firstLine = false;
-                    continue;
-                }
-                data.add(line);
-            }
-        } catch (CsvValidationException | IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+        if (archivoCSV.length() >= UMBRAL_PARALELO && LectorCSVParalelo.admite(CHARSET, this.separator)) {
+            return dataProviderFromCSV(archivoCSV, true);
         }
+        return comoDatos(abrir(archivoCSV).saltarEncabezado());
+    }
 
-        return data.iterator();
+    /**
+     * Entrega las filas de datos del archivo (sin el encabezado) leyendo el archivo mapeado en memoria y en paralelo,
+     * para archivos muy grandes. Si la prueba no depende del orden de los datos, con {@code ordenado} en false cada
+     * bloque se entrega apenas termina y no espera a los anteriores.
+     *
+     * @param archivoCSV - el {@code File} a leer
+     * @param ordenado   - si las filas se entregan en el orden del archivo
+     * @return las filas de datos del archivo
+     * @throws IOException si no se puede abrir el archivo
+     */
+    public Iterator<Object[]> dataProviderFromCSV(File archivoCSV, boolean ordenado) throws IOException {
+        return comoDatos(abrirParalelo(archivoCSV, ordenado).saltarEncabezado());
     }
 
     public Iterator<Object[]> dataProviderFromCSV(String rutaArchivoCSV) throws IOException {
-        List<Object[]> data = new ArrayList<>();
-
-        File fileCSV = new File(rutaArchivoCSV);
-        try (CSVReader reader = new CSVReader(new FileReader(fileCSV))) {
-            String[] line;
-            boolean firstLine = true;
-            while ((line = reader.readNext()) != null) {
-                if (firstLine) {
-                    firstLine = false;
-                    continue;
-                }
-                data.add(line);
+        return dataProviderFromCSV(new File(rutaArchivoCSV));
+    }
+
+    public Iterator<Object[]> dataProviderFromCSV(String carpetaPadre, String nombreArchivo) throws IOException {
+        return dataProviderFromCSV(new File(carpetaPadre, nombreArchivo));
+    }
+
+    /**
+     * Abre el archivo con el motor de lectura en streaming, con el separador y la codificacion configurados.
+     *
+     * @param archivoCSV - el {@code File} a leer
+     * @return el lector del archivo, se cierra solo al llegar al final
+     * @throws IOException si no se puede abrir el archivo
+     */
+    public LectorCSV abrir(File archivoCSV) throws IOException {
+        return new LectorCSV(archivoCSV, this.separator, CHARSET);
+    }
+
+    /**
+     * Abre el archivo con el lector en paralelo, con el separador y la codificacion configurados.
+     *
+     * @param archivoCSV - el {@code File} a leer
+     * @param ordenado   - si las filas se entregan en el orden del archivo
+     * @return el lector del archivo, se cierra solo al llegar al final
+     * @throws IOException si no se puede abrir el archivo
+     */
+    public LectorCSVParalelo abrirParalelo(File archivoCSV, boolean ordenado) throws IOException {
+        return new LectorCSVParalelo(archivoCSV, this.separator, CHARSET, ordenado);
+    }
+
+    private static Iterator<Object[]> comoDatos(Iterator<String[]> filas) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return filas.hasNext();
             }
-        } catch (CsvValidationException | IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
 
-        return data.iterator();
+            @Override
+            public Object[] next() {
+                return filas.next();
+            }
+        };
     }
 
-    public Iterator<Object[]> dataProviderFromCSV(String carpetaPadre, String nombreArchivo) throws IOException {
-        List<Object[]> data = new ArrayList<>();
-
-        File csvFile = new File(carpetaPadre, nombreArchivo);
-        try (CSVReader reader = new CSVReader(new FileReader(csvFile))) {
-            String[] line;
-            boolean firstLine = true;
-            while ((line = reader.readNext()) != null) {
-                if (firstLine) {
-                    firstLine = false;
-                    continue;
-                }
-                data.add(line);
+    private List<String> leerValores(File archivoCSV) throws IOException {
+        List<String> valores = new ArrayList<>();
+        try (LectorCSV lector = abrir(archivoCSV)) {
+            while (lector.hasNext()) {
+                Collections.addAll(valores, lector.next());
             }
-        } catch (CsvValidationException | IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
         }
+        return valores;
+    }
 
-        return data.iterator();
+    /**
+     * Lee un archivo CSV con encabezado como una {@link TablaDatos} con columnas tipadas, usando el separador
+     * configurado.
+     *
+     * @param archivoCSV - el {@code File} a leer
+     * @return la tabla con las filas de datos del archivo
+     * @throws IOException si hay un error al leer o validar el archivo CSV
+     */
+    public TablaDatos leerTabla(File archivoCSV) throws IOException {
+        return TablaDatos.desdeCSV(archivoCSV, this.separator, CHARSET);
     }
 }
@@ -1,59 +1,166 @@
 package com.periferiaitgroup.utilities;
 
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Lectura de datos de prueba desde archivos de Excel (xlsx).
+ * <br/>
+ * Los metodos no comparten estado mutable, por lo que se pueden llamar desde {@code @DataProvider(parallel = true)}.
+ * Las hojas leidas con {@link #getTableArray(String, String)} se guardan en un cache de la JVM por ruta, nombre de
+ * hoja y fecha de modificacion del archivo: si varias clases de prueba leen la misma hoja, el libro se abre una sola
+ * vez mientras el archivo no cambie. El cache se desactiva con EXCEL_CACHE=false.
+ */
 public class GestorArchivosExcel {
 
-    private static XSSFSheet excelWSheet;
-    private static XSSFWorkbook excelWBook;
-    private static XSSFCell cell;
+    private static final boolean CACHE_HABILITADO = PropertyFileReader.obtenerPropiedad("EXCEL_CACHE", true);
+    private static final Map<ClaveHoja, HojaLeida> CACHE = new ConcurrentHashMap<>();
 
-    private static String getCellData(int rowNum, int colNum) {
-        cell = excelWSheet.getRow(rowNum).getCell(colNum);
-        String CellData = "";
-        if (cell.getCellType() == null) {
+    private GestorArchivosExcel() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Obtiene el valor de la celda con el formato que muestra Excel (numeros sin ".0", fechas con su formato y el
+     * resultado guardado de las formulas), "" si la fila o la celda no existen.
+     */
+    private static String getCellData(XSSFSheet excelWSheet, int rowNum, int colNum, DataFormatter formato) {
+        XSSFRow row = excelWSheet.getRow(rowNum);
+        if (row == null) {
             return "";
-        } else {
-            try {
-                CellData = cell.getStringCellValue();
-            } catch (Exception e) {
-                CellData = Double.toString(cell.getNumericCellValue()).split("\\. ")[0];
-            }
         }
+        XSSFCell cell = row.getCell(colNum);
+        if (cell == null) {
+            return "";
+        }
+        if (cell.getCellType() == CellType.FORMULA) {
+            return resultadoFormula(cell, formato);
+        }
+        return formato.formatCellValue(cell);
+    }
 
-        return CellData;
+    /**
+     * Formatea el resultado guardado de una formula, sin evaluarla, igual que el lector SAX de
+     * {@link IteradorFilasExcel}. Sin esto DataFormatter devuelve el texto de la formula.
+     */
+    private static String resultadoFormula(XSSFCell cell, DataFormatter formato) {
+        return switch (cell.getCachedFormulaResultType()) {
+            case NUMERIC -> formato.formatRawCellContents(cell.getNumericCellValue(),
+                    cell.getCellStyle().getDataFormat(), cell.getCellStyle().getDataFormatString());
+            case STRING -> cell.getStringCellValue();
+            case BOOLEAN -> cell.getBooleanCellValue() ? "TRUE" : "FALSE";
+            case ERROR -> cell.getErrorCellString();
+            default -> "";
+        };
     }
 
     public static Object[][] getTableArray(String filePath, String sheetName) {
-        String[][] tabArray = null;
-
         try {
-            FileInputStream ExcelFile = new FileInputStream(filePath);
+            String[][] tabArray = CACHE_HABILITADO ? leerConCache(filePath, sheetName) : leerHoja(Path.of(filePath), sheetName);
+            return copiar(tabArray);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Could not read the excel sheet");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Vacia el cache de hojas leidas.
+     */
+    public static void limpiarCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Devuelve la hoja del cache si el archivo no cambio desde que se leyo. Los hilos que piden la misma hoja al
+     * mismo tiempo esperan a que el primero la lea, asi el libro se abre una sola vez.
+     */
+    private static String[][] leerConCache(String filePath, String sheetName) throws IOException {
+        Path ruta = Path.of(filePath).toAbsolutePath().normalize();
+        BasicFileAttributes atributos = Files.readAttributes(ruta, BasicFileAttributes.class);
+        return CACHE.compute(new ClaveHoja(ruta, sheetName), (clave, leida) -> {
+            if (leida != null && leida.vigente(atributos)) {
+                return leida;
+            }
+            try {
+                return new HojaLeida(atributos.lastModifiedTime(), atributos.size(), leerHoja(ruta, sheetName));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).datos();
+    }
+
+    private static String[][] leerHoja(Path ruta, String sheetName) throws IOException {
+        try (InputStream ExcelFile = Files.newInputStream(ruta);
+             XSSFWorkbook excelWBook = new XSSFWorkbook(ExcelFile)) {
             //ACCESS THE REQUIRED TEST DATA SHEET
-            excelWBook = new XSSFWorkbook(ExcelFile);
-            excelWSheet = excelWBook.getSheet(sheetName);
+            XSSFSheet excelWSheet = excelWBook.getSheet(sheetName);
+            if (excelWSheet == null) {
+                throw new IOException("La hoja " + sheetName + " no existe en " + ruta);
+            }
             int startRow = 1;
             int startCol = 0;
             int ci, cj;
             int totalRows = excelWSheet.getLastRowNum();
             int totalCols = excelWSheet.getRow(0).getPhysicalNumberOfCells();
-            tabArray = new String[totalRows][totalCols];
+            String[][] tabArray = new String[totalRows][totalCols];
+            DataFormatter formato = new DataFormatter();
             ci = 0;
             for (int i = startRow; i <= totalRows; i++, ci++) {
                 cj = 0;
                 for (int j = startCol; j <= totalCols - 1; j++, cj++) {
-                    tabArray[ci][cj] = getCellData(i, j);
+                    tabArray[ci][cj] = getCellData(excelWSheet, i, j, formato);
                 }
             }
-        } catch (IOException e) {
-            System.out.println("Could not read the excel sheet");
-            e.printStackTrace();
+            return tabArray;
         }
-        return (tabArray);
+    }
+
+    /**
+     * Cada llamada recibe su propia copia de las filas para que una prueba no modifique los datos de otra.
+     */
+    private static Object[][] copiar(String[][] tabArray) {
+        Object[][] copia = new Object[tabArray.length][];
+        for (int i = 0; i < tabArray.length; i++) {
+            copia[i] = tabArray[i].clone();
+        }
+        return copia;
+    }
+
+    private record ClaveHoja(Path ruta, String hoja) {
+    }
+
+    private record HojaLeida(FileTime modificacion, long tamano, String[][] datos) {
+        private boolean vigente(BasicFileAttributes atributos) {
+            return modificacion.equals(atributos.lastModifiedTime()) && tamano == atributos.size();
+        }
+    }
+
+    /**
+     * Lee la hoja en streaming y entrega las filas de datos una por una, para hojas grandes que no caben en memoria
+     * con {@link #getTableArray(String, String)}. Se puede devolver directamente desde un {@code @DataProvider}.
+     *
+     * @param filePath  La ruta del archivo xlsx.
+     * @param sheetName El nombre de la hoja.
+     * @return Las filas de datos de la hoja, sin el encabezado.
+     */
+    public static Iterator<Object[]> getTableIterator(String filePath, String sheetName) {
+        return new IteradorFilasExcel(filePath, sheetName);
     }
 }
@@ -0,0 +1,240 @@
+package com.periferiaitgroup.utilities;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Iterador de las filas de una hoja de Excel (xlsx) leida en streaming con el lector SAX de XSSF, para usarlo como
+ * {@code @DataProvider} que devuelve {@code Iterator<Object[]>}.
+ * <br/>
+ * La hoja nunca se carga completa: un hilo lector recorre el XML de la hoja y entrega las filas por una cola acotada,
+ * por lo que la memoria no depende del numero de filas (solo la tabla de textos compartidos del libro se carga
+ * completa). Igual que {@link GestorArchivosExcel#getTableArray(String, String)}, la primera fila es el encabezado y
+ * define el numero de columnas, y cada fila se entrega como un arreglo de textos con el formato que muestra Excel; las
+ * celdas vacias se entregan como "" y las filas que no existen en el archivo se omiten. {@link TablaDatos} lo usa
+ * incluyendo el encabezado.
+ * <br/>
+ * El iterador se cierra solo al llegar al final. Si la prueba deja de iterar antes se debe llamar a {@link #close()};
+ * TestNG no lo hace, por eso el hilo lector tambien se detiene y libera el archivo si la cola pasa
+ * EXCEL_ESPERA_FILAS_SEG segundos llena sin que nadie pida una fila.
+ */
+public class IteradorFilasExcel implements Iterator<Object[]>, AutoCloseable {
+
+    protected static Logger log = LogManager.getLogger(IteradorFilasExcel.class);
+
+    private static final int FILAS_EN_COLA = 256;
+    private static final long ESPERA_FILAS_SEG = PropertyFileReader.obtenerPropiedad("EXCEL_ESPERA_FILAS_SEG", 1800);
+    private static final Object[] FIN = new Object[0];
+    private static final AtomicInteger CONTADOR_HILOS = new AtomicInteger();
+
+    private final String filePath;
+    private final String sheetName;
+    private final boolean incluirEncabezado;
+    private final BlockingQueue<Object[]> filas = new ArrayBlockingQueue<>(FILAS_EN_COLA);
+    private final Thread lector;
+    private volatile RuntimeException error;
+    private volatile boolean abandonado;
+    private Object[] siguiente;
+    private volatile boolean terminado;
+
+    /**
+     * Abre la hoja y empieza a leerla en segundo plano.
+     *
+     * @param filePath  La ruta del archivo xlsx.
+     * @param sheetName El nombre de la hoja.
+     */
+    public IteradorFilasExcel(String filePath, String sheetName) {
+        this(filePath, sheetName, false);
+    }
+
+    /**
+     * Abre la hoja y empieza a leerla en segundo plano.
+     *
+     * @param filePath          La ruta del archivo xlsx.
+     * @param sheetName         El nombre de la hoja.
+     * @param incluirEncabezado Si la primera fila entregada es el encabezado.
+     */
+    public IteradorFilasExcel(String filePath, String sheetName, boolean incluirEncabezado) {
+        this.filePath = filePath;
+        this.sheetName = sheetName;
+        this.incluirEncabezado = incluirEncabezado;
+        this.lector = new Thread(this::leer, "excel-lector-" + CONTADOR_HILOS.incrementAndGet());
+        this.lector.setDaemon(true);
+        this.lector.start();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (siguiente != null) {
+            return true;
+        }
+        if (terminado) {
+            return false;
+        }
+        try {
+            Object[] fila = filas.take();
+            if (fila == FIN) {
+                close();
+                if (error != null) {
+                    throw error;
+                }
+                return false;
+            }
+            siguiente = fila;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            return false;
+        }
+    }
+
+    @Override
+    public Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object[] fila = siguiente;
+        siguiente = null;
+        return fila;
+    }
+
+    /**
+     * Detiene la lectura y libera el archivo, se puede llamar varias veces.
+     */
+    @Override
+    public void close() {
+        terminado = true;
+        siguiente = null;
+        lector.interrupt();
+        filas.clear();
+    }
+
+    private void leer() {
+        try (OPCPackage paquete = OPCPackage.open(new File(filePath), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(paquete);
+            ReadOnlySharedStringsTable textos = new ReadOnlySharedStringsTable(paquete, false);
+            StylesTable estilos = reader.getStylesTable();
+            XSSFReader.SheetIterator hojas = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (hojas.hasNext()) {
+                try (InputStream hoja = hojas.next()) {
+                    if (hojas.getSheetName().equals(sheetName)) {
+                        XMLReader parser = XMLHelper.newXMLReader();
+                        parser.setContentHandler(new XSSFSheetXMLHandler(estilos, textos, new Filas(), new DataFormatter(), false));
+                        parser.parse(new InputSource(hoja));
+                        return;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("La hoja " + sheetName + " no existe en " + filePath);
+        } catch (LecturaCancelada e) {
+            if (abandonado) {
+                log.warn("No se pidieron filas de la hoja {} de {} en {} s, se libera el archivo", sheetName, filePath, ESPERA_FILAS_SEG);
+                error = new IllegalStateException("Se dejo de leer la hoja " + sheetName + " de " + filePath
+                        + " porque no se pidieron filas en " + ESPERA_FILAS_SEG + " s");
+            } else {
+                log.debug("Se cancelo la lectura de la hoja {} de {}", sheetName, filePath);
+            }
+        } catch (Exception e) {
+            log.error("No se pudo leer la hoja {} de {}: {}", sheetName, filePath, e.getMessage());
+            error = e instanceof RuntimeException runtime ? runtime : new IllegalStateException("No se pudo leer la hoja " + sheetName + " de " + filePath, e);
+        } finally {
+            boolean entregado;
+            try {
+                entregado = !abandonado && !terminado && filas.offer(FIN, ESPERA_FILAS_SEG, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                entregado = false;
+            }
+            if (!entregado) {
+                // Nadie va a consumir las filas pendientes, el fin (y el error si lo hay) llega al siguiente hasNext
+                filas.clear();
+                filas.offer(FIN);
+            }
+        }
+    }
+
+    /**
+     * Arma cada fila a partir de los eventos de celda del lector SAX. El encabezado define el numero de columnas y no
+     * se entrega.
+     */
+    private class Filas implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private int columnas = -1;
+        private String[] fila;
+        private int ultimaColumna;
+
+        @Override
+        public void startRow(int rowNum) {
+            fila = columnas < 0 ? new String[16] : new String[columnas];
+            ultimaColumna = -1;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (columnas < 0) {
+                columnas = ultimaColumna + 1;
+                if (!incluirEncabezado) {
+                    return;
+                }
+                fila = Arrays.copyOf(fila, columnas);
+            }
+            for (int i = 0; i < fila.length; i++) {
+                if (fila[i] == null) {
+                    fila[i] = "";
+                }
+            }
+            if (terminado) {
+                throw new LecturaCancelada();
+            }
+            try {
+                if (!filas.offer(fila, ESPERA_FILAS_SEG, TimeUnit.SECONDS)) {
+                    abandonado = true;
+                    throw new LecturaCancelada();
+                }
+            } catch (InterruptedException e) {
+                throw new LecturaCancelada();
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int columna = cellReference == null ? ultimaColumna + 1 : new CellReference(cellReference).getCol();
+            ultimaColumna = columna;
+            if (columnas < 0) {
+                if (columna >= fila.length) {
+                    fila = Arrays.copyOf(fila, Math.max(columna + 1, fila.length * 2));
+                }
+            } else if (columna >= columnas) {
+                return;
+            }
+            fila[columna] = formattedValue;
+        }
+    }
+
+    private static class LecturaCancelada extends RuntimeException {
+        private LecturaCancelada() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.periferiaitgroup.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lector de archivos CSV en streaming, es el motor de lectura de {@link GestorArchivosCSV} y {@link TablaDatos}.
+ * <br/>
+ * Lee el archivo por bloques de 64 KB con el charset indicado y separa los campos en una sola pasada con el separador
+ * configurado, respetando los campos entre comillas (con separadores, saltos de linea y comillas dobles escapadas
+ * como ""). El texto del campo y la lista de campos de la fila se reutilizan entre filas, por lo que cada fila solo
+ * crea sus textos y su arreglo. Las filas se entregan de forma perezosa y el archivo se cierra al llegar al final.
+ */
+public class LectorCSV implements Iterator<String[]>, AutoCloseable {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final char COMILLA = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final String origen;
+    private final char separador;
+    private final char[] buffer = new char[TAMANO_BUFFER];
+    private final StringBuilder campo = new StringBuilder();
+    private final List<String> campos = new ArrayList<>();
+    private int posicion;
+    private int limite;
+    private String[] siguiente;
+    private boolean terminado;
+
+    /**
+     * Abre el archivo para leerlo fila por fila. La marca de orden de bytes (BOM) al inicio del archivo se descarta y
+     * los bytes que no son validos en el charset se reemplazan por \uFFFD en lugar de fallar, por ejemplo al leer con
+     * UTF-8 un archivo guardado en windows-1252.
+     *
+     * @param archivoCSV El archivo a leer.
+     * @param separador  El caracter separador de los campos.
+     * @param charset    La codificacion del archivo.
+     * @throws IOException Si no se puede abrir el archivo.
+     */
+    public LectorCSV(File archivoCSV, char separador, Charset charset) throws IOException {
+        this(sinBOM(new InputStreamReader(Files.newInputStream(archivoCSV.toPath()), decodificador(charset))), archivoCSV.getPath(), separador);
+    }
+
+    /**
+     * Lee filas desde un Reader ya abierto, el lector lo cierra al terminar.
+     *
+     * @param reader    El origen de los datos.
+     * @param origen    La descripcion del origen para los mensajes de error.
+     * @param separador El caracter separador de los campos.
+     */
+    public LectorCSV(Reader reader, String origen, char separador) {
+        if (separador == COMILLA || separador == '\n' || separador == '\r') {
+            throw new IllegalArgumentException("El separador no puede ser comilla ni salto de linea");
+        }
+        this.reader = reader;
+        this.origen = origen;
+        this.separador = separador;
+    }
+
+    /**
+     * Crea un decodificador del charset que reemplaza los bytes invalidos en lugar de lanzar una excepcion.
+     */
+    static CharsetDecoder decodificador(Charset charset) {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    private static Reader sinBOM(Reader reader) throws IOException {
+        PushbackReader lector = new PushbackReader(reader, 1);
+        int primero = lector.read();
+        if (primero != -1 && primero != BOM) {
+            lector.unread(primero);
+        }
+        return lector;
+    }
+
+    /**
+     * Descarta la primera fila, para archivos con encabezado.
+     *
+     * @return El mismo lector.
+     */
+    public LectorCSV saltarEncabezado() {
+        if (hasNext()) {
+            next();
+        }
+        return this;
+    }
+
+    /**
+     * @throws UncheckedIOException Si hay un error al leer el archivo.
+     */
+    @Override
+    public boolean hasNext() {
+        if (siguiente == null && !terminado) {
+            try {
+                siguiente = leerFila();
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Error al leer el archivo CSV " + origen, e);
+            }
+            if (siguiente == null) {
+                close();
+            }
+        }
+        return siguiente != null;
+    }
+
+    @Override
+    public String[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String[] fila = siguiente;
+        siguiente = null;
+        return fila;
+    }
+
+    /**
+     * Cierra el archivo, se puede llamar varias veces.
+     */
+    @Override
+    public void close() {
+        terminado = true;
+        try {
+            reader.close();
+        } catch (IOException e) {
+            System.err.println("No se pudo cerrar el archivo CSV " + origen + "\n" + e);
+        }
+    }
+
+    /**
+     * Lee la siguiente fila, las lineas vacias se omiten.
+     *
+     * @return Los campos de la fila o null al final del archivo.
+     */
+    private String[] leerFila() throws IOException {
+        campos.clear();
+        campo.setLength(0);
+        boolean entreComillas = false;
+        boolean filaIniciada = false;
+        while (true) {
+            if (posicion == limite && !llenarBuffer()) {
+                if (entreComillas) {
+                    throw new IOException("Campo entre comillas sin cerrar al final del archivo");
+                }
+                if (!filaIniciada) {
+                    return null;
+                }
+                campos.add(campo.toString());
+                return campos.toArray(new String[0]);
+            }
+            char caracter = buffer[posicion++];
+            if (entreComillas) {
+                if (caracter != COMILLA) {
+                    campo.append(caracter);
+                } else if (siguienteEs(COMILLA)) {
+                    posicion++;
+                    campo.append(COMILLA);
+                } else {
+                    entreComillas = false;
+                }
+            } else if (caracter == separador) {
+                filaIniciada = true;
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (caracter == '\n' || caracter == '\r') {
+                if (caracter == '\r' && siguienteEs('\n')) {
+                    posicion++;
+                }
+                if (filaIniciada) {
+                    campos.add(campo.toString());
+                    return campos.toArray(new String[0]);
+                }
+            } else if (caracter == COMILLA && campo.isEmpty()) {
+                filaIniciada = true;
+                entreComillas = true;
+            } else {
+                filaIniciada = true;
+                campo.append(caracter);
+            }
+        }
+    }
+
+    /**
+     * Mira el siguiente caracter sin consumirlo, cargando el siguiente bloque si hace falta.
+     */
+    private boolean siguienteEs(char esperado) throws IOException {
+        return (posicion < limite || llenarBuffer()) && buffer[posicion] == esperado;
+    }
+
+    private boolean llenarBuffer() throws IOException {
+        int leidos = reader.read(buffer, 0, buffer.length);
+        if (leidos <= 0) {
+            posicion = limite = 0;
+            return false;
+        }
+        posicion = 0;
+        limite = leidos;
+        return true;
+    }
+}
@@ -0,0 +1,451 @@
+package com.periferiaitgroup.utilities;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.CharArrayReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Lector de archivos CSV muy grandes que reparte el trabajo entre los nucleos disponibles.
+ * <br/>
+ * El archivo se mapea en memoria por bloques de CSV_BLOQUE_MB con NIO y se divide en limites de registro. Como no se
+ * sabe si un bloque empieza dentro de un campo entre comillas, una pasada en paralelo (fork/join) recorre cada bloque
+ * con el mismo automata de comillas de {@link LectorCSV} (la comilla solo abre un campo al inicio del campo, "" es una
+ * comilla escapada y una comilla en medio del campo es literal) desde todos los estados posibles, y guarda para cada
+ * estado inicial el estado final y el primer fin de registro del bloque. Encadenar esos resultados desde el inicio del
+ * archivo da el estado real al inicio de cada bloque y con el el limite, sin recorrer el archivo en un solo hilo.
+ * Luego cada bloque se decodifica y se separa en filas con {@link LectorCSV} en el pool de fork/join, con a lo sumo dos
+ * bloques por hilo en vuelo para que la memoria no dependa del tamaño del archivo.
+ * <br/>
+ * Las filas se entregan en el orden del archivo o, si el llamador no necesita el orden, a medida que termina cada
+ * bloque. Solo admite codificaciones en las que la comilla, el salto de linea y el separador ocupan un byte (UTF-8,
+ * ISO-8859-1, windows-1252, etc.), ver {@link #admite(Charset, char)}. Si la prueba deja de iterar antes del final se
+ * debe llamar a {@link #close()} para liberar el archivo.
+ */
+public class LectorCSVParalelo implements Iterator<String[]>, AutoCloseable {
+
+    protected static Logger log = LogManager.getLogger(LectorCSVParalelo.class);
+
+    private static final long TAMANO_BLOQUE = Math.max(1, PropertyFileReader.obtenerPropiedad("CSV_BLOQUE_MB", 8)) * 1024L * 1024L;
+    private static final int TAMANO_LECTURA = 64 * 1024;
+    private static final byte COMILLA = '"';
+    private static final byte SALTO_LINEA = '\n';
+
+    // Estados del automata de comillas, los mismos de LectorCSV.leerFila
+    private static final int INICIO_CAMPO = 0;
+    private static final int TEXTO = 1;
+    private static final int COMILLAS_VACIO = 2;
+    private static final int COMILLAS = 3;
+    private static final int CIERRE_VACIO = 4;
+    private static final int CIERRE = 5;
+    private static final int ESTADOS = 6;
+
+    // Clases de byte
+    private static final int OTRO = 0;
+    private static final int ES_COMILLA = 1;
+    private static final int ES_SEPARADOR = 2;
+    private static final int ES_SALTO_LINEA = 3;
+    private static final int ES_RETORNO = 4;
+
+    /**
+     * Siguiente estado por estado y clase de byte. CIERRE_VACIO y CIERRE son una comilla dentro de comillas que aun no
+     * se sabe si cierra el campo o es una comilla escapada ("").
+     */
+    private static final int[][] TRANSICION = {
+            /* INICIO_CAMPO   */ {TEXTO, COMILLAS_VACIO, INICIO_CAMPO, INICIO_CAMPO, INICIO_CAMPO},
+            /* TEXTO          */ {TEXTO, TEXTO, INICIO_CAMPO, INICIO_CAMPO, INICIO_CAMPO},
+            /* COMILLAS_VACIO */ {COMILLAS, CIERRE_VACIO, COMILLAS, COMILLAS, COMILLAS},
+            /* COMILLAS       */ {COMILLAS, CIERRE, COMILLAS, COMILLAS, COMILLAS},
+            /* CIERRE_VACIO   */ {TEXTO, COMILLAS, INICIO_CAMPO, INICIO_CAMPO, INICIO_CAMPO},
+            /* CIERRE         */ {TEXTO, COMILLAS, INICIO_CAMPO, INICIO_CAMPO, INICIO_CAMPO}
+    };
+    /** Estados en los que un salto de linea termina el registro. */
+    private static final boolean[] FIN_REGISTRO = {true, true, false, false, true, true};
+
+    private final File archivo;
+    private final char separador;
+    private final Charset charset;
+    private final boolean ordenado;
+    private final long tamanoBloque;
+    private final byte[] clases = new byte[256];
+    private final FileChannel canal;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private final int maximoEnVuelo = Math.max(2, pool.getParallelism() * 2);
+    private final long[] limites;
+    private final Deque<Future<List<String[]>>> pendientes = new ArrayDeque<>();
+    private final CompletionService<List<String[]>> completados;
+    private boolean saltarEncabezado;
+    private boolean iniciado;
+    private int siguienteBloque;
+    private int enVuelo;
+    private Iterator<String[]> actual = Collections.emptyIterator();
+    private volatile boolean cerrado;
+
+    /**
+     * Mapea el archivo y calcula los limites de los bloques, la lectura de las filas empieza con el primer hasNext.
+     *
+     * @param archivoCSV El archivo a leer.
+     * @param separador  El caracter separador de los campos.
+     * @param charset    La codificacion del archivo.
+     * @param ordenado   Si las filas se entregan en el orden del archivo.
+     * @throws IOException Si no se puede abrir o recorrer el archivo.
+     */
+    public LectorCSVParalelo(File archivoCSV, char separador, Charset charset, boolean ordenado) throws IOException {
+        this(archivoCSV, separador, charset, ordenado, TAMANO_BLOQUE);
+    }
+
+    /**
+     * Igual que {@link #LectorCSVParalelo(File, char, Charset, boolean)} con un tamaño de bloque propio en lugar de
+     * CSV_BLOQUE_MB.
+     *
+     * @param tamanoBloque El tamaño nominal de cada bloque en bytes.
+     */
+    public LectorCSVParalelo(File archivoCSV, char separador, Charset charset, boolean ordenado, long tamanoBloque) throws IOException {
+        if (!admite(charset, separador)) {
+            throw new IllegalArgumentException("La codificacion " + charset + " con el separador '" + separador
+                    + "' no se puede dividir por bytes, use LectorCSV");
+        }
+        if (tamanoBloque <= 0 || tamanoBloque > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tamaño de bloque invalido: " + tamanoBloque);
+        }
+        this.archivo = archivoCSV;
+        this.separador = separador;
+        this.charset = charset;
+        this.ordenado = ordenado;
+        this.tamanoBloque = tamanoBloque;
+        this.clases[COMILLA] = ES_COMILLA;
+        this.clases[separador] = ES_SEPARADOR;
+        this.clases[SALTO_LINEA] = ES_SALTO_LINEA;
+        this.clases['\r'] = ES_RETORNO;
+        this.completados = ordenado ? null : new ExecutorCompletionService<>(pool);
+        this.canal = FileChannel.open(archivoCSV.toPath(), StandardOpenOption.READ);
+        try {
+            this.limites = dividir();
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+        log.debug("Archivo {} dividido en {} bloques", archivoCSV, limites.length - 1);
+    }
+
+    /**
+     * Indica si los archivos con la codificacion y el separador se pueden dividir buscando la comilla, el separador y
+     * el salto de linea por bytes.
+     *
+     * @param charset   La codificacion del archivo.
+     * @param separador El caracter separador de los campos.
+     * @return true si la comilla, el salto de linea y el separador se codifican como un solo byte ASCII.
+     */
+    public static boolean admite(Charset charset, char separador) {
+        return separador < 0x80 && separador != COMILLA && separador != SALTO_LINEA && separador != '\r'
+                && Arrays.equals(("\"\n\r" + separador).getBytes(charset), new byte[]{COMILLA, SALTO_LINEA, '\r', (byte) separador});
+    }
+
+    /**
+     * Descarta la primera fila del archivo, para archivos con encabezado. Se debe llamar antes de leer.
+     *
+     * @return El mismo lector.
+     */
+    public LectorCSVParalelo saltarEncabezado() {
+        if (iniciado) {
+            throw new IllegalStateException("La lectura del archivo " + archivo + " ya empezo");
+        }
+        saltarEncabezado = true;
+        return this;
+    }
+
+    /**
+     * @throws UncheckedIOException Si hay un error al leer el archivo.
+     */
+    @Override
+    public boolean hasNext() {
+        iniciado = true;
+        while (!actual.hasNext()) {
+            if (cerrado) {
+                return false;
+            }
+            List<String[]> filas = siguienteBloque();
+            if (filas == null) {
+                close();
+                return false;
+            }
+            actual = filas.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public String[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return actual.next();
+    }
+
+    /**
+     * Cancela los bloques pendientes y cierra el archivo, se puede llamar varias veces.
+     */
+    @Override
+    public void close() {
+        cerrado = true;
+        actual = Collections.emptyIterator();
+        pendientes.forEach(futuro -> futuro.cancel(false));
+        pendientes.clear();
+        try {
+            canal.close();
+        } catch (IOException e) {
+            log.error("No se pudo cerrar el archivo CSV {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    /**
+     * Envia bloques al pool hasta completar el maximo en vuelo y espera el siguiente resultado.
+     *
+     * @return Las filas del siguiente bloque o null si no quedan bloques.
+     */
+    private List<String[]> siguienteBloque() {
+        while (enVuelo < maximoEnVuelo && siguienteBloque < limites.length - 1) {
+            int bloque = siguienteBloque++;
+            if (ordenado) {
+                pendientes.add(pool.submit(() -> leerBloque(bloque)));
+            } else {
+                pendientes.add(completados.submit(() -> leerBloque(bloque)));
+            }
+            enVuelo++;
+        }
+        if (enVuelo == 0) {
+            return null;
+        }
+        try {
+            Future<List<String[]>> futuro = ordenado ? pendientes.peekFirst() : completados.take();
+            List<String[]> filas = futuro.get();
+            pendientes.remove(futuro);
+            enVuelo--;
+            return filas;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            return null;
+        } catch (ExecutionException e) {
+            close();
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException("Error al leer el archivo CSV " + archivo, io);
+            }
+            throw new IllegalStateException("Error al leer el archivo CSV " + archivo, e.getCause());
+        }
+    }
+
+    private List<String[]> leerBloque(int bloque) throws IOException {
+        long inicio = limites[bloque];
+        long fin = limites[bloque + 1];
+        CharBuffer texto = LectorCSV.decodificador(charset).decode(canal.map(FileChannel.MapMode.READ_ONLY, inicio, fin - inicio));
+        if (bloque == 0 && texto.hasRemaining() && texto.get(texto.position()) == '\uFEFF') {
+            texto.position(texto.position() + 1);
+        }
+        List<String[]> filas = new ArrayList<>();
+        CharArrayReader reader = new CharArrayReader(texto.array(), texto.arrayOffset() + texto.position(), texto.remaining());
+        try (LectorCSV lector = new LectorCSV(reader, archivo + " (bytes " + inicio + " a " + fin + ")", separador)) {
+            if (bloque == 0 && saltarEncabezado) {
+                lector.saltarEncabezado();
+            }
+            lector.forEachRemaining(filas::add);
+        }
+        return filas;
+    }
+
+    /**
+     * Calcula los limites de los bloques, cada limite queda justo despues de un salto de linea que termina un registro.
+     *
+     * @return Las posiciones de inicio de cada bloque, la ultima posicion es el tamaño del archivo.
+     */
+    private long[] dividir() throws IOException {
+        long tamano = canal.size();
+        int bloques = (int) Math.max(1, (tamano + tamanoBloque - 1) / tamanoBloque);
+        if (bloques == 1) {
+            return new long[]{0, tamano};
+        }
+
+        // Cada bloque se recorre en paralelo desde todos los estados iniciales posibles
+        Recorrido[] recorridos = new Recorrido[bloques];
+        long inicioDatos = largoBOM();
+        try {
+            pool.invoke(new PorBloque(0, bloques, bloque -> {
+                long inicio = bloque == 0 ? inicioDatos : bloque * tamanoBloque;
+                recorridos[bloque] = recorrer(inicio, Math.min(tamano, inicio + tamanoBloque));
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // Encadenando los estados finales se conoce el estado real al inicio de cada bloque
+        long[] candidatos = new long[bloques + 1];
+        int limitesEncontrados = 1;
+        int estado = INICIO_CAMPO;
+        for (int bloque = 0; bloque < bloques; bloque++) {
+            long fin = recorridos[bloque].finRegistro()[estado];
+            // Un registro mas largo que un bloque no tiene fin dentro del bloque
+            if (bloque > 0 && fin > candidatos[limitesEncontrados - 1] && fin < tamano) {
+                candidatos[limitesEncontrados++] = fin;
+            }
+            estado = recorridos[bloque].estadoFinal()[estado];
+        }
+        candidatos[limitesEncontrados++] = tamano;
+        return Arrays.copyOf(candidatos, limitesEncontrados);
+    }
+
+    /**
+     * El BOM de UTF-8 no es parte del primer campo, igual que en {@link LectorCSV}.
+     *
+     * @return El numero de bytes del BOM al inicio del archivo, 0 si no tiene.
+     */
+    private long largoBOM() throws IOException {
+        if (!StandardCharsets.UTF_8.equals(charset) || canal.size() < 3) {
+            return 0;
+        }
+        ByteBuffer inicio = canal.map(FileChannel.MapMode.READ_ONLY, 0, 3);
+        boolean bom = (inicio.get(0) & 0xff) == 0xEF && (inicio.get(1) & 0xff) == 0xBB && (inicio.get(2) & 0xff) == 0xBF;
+        return bom ? 3 : 0;
+    }
+
+    /**
+     * Recorre un bloque con el automata de comillas desde los seis estados iniciales a la vez. Los recorridos que
+     * llegan al mismo estado se unen, por lo que en la practica solo se siguen uno o dos despues del primer registro.
+     */
+    private Recorrido recorrer(long inicio, long fin) throws IOException {
+        int[] estados = new int[ESTADOS];
+        int[] iniciales = new int[ESTADOS];
+        int activos = ESTADOS;
+        for (int s = 0; s < ESTADOS; s++) {
+            estados[s] = s;
+            iniciales[s] = 1 << s;
+        }
+        long[] finRegistro = new long[ESTADOS];
+        Arrays.fill(finRegistro, -1);
+        int sinFin = (1 << ESTADOS) - 1;
+
+        ByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fin - inicio);
+        byte[] lectura = new byte[TAMANO_LECTURA];
+        long posicion = inicio;
+        while (datos.hasRemaining()) {
+            int leidos = Math.min(lectura.length, datos.remaining());
+            datos.get(lectura, 0, leidos);
+            for (int i = 0; i < leidos; i++) {
+                int clase = clases[lectura[i] & 0xff];
+                for (int t = 0; t < activos; t++) {
+                    int anterior = estados[t];
+                    estados[t] = TRANSICION[anterior][clase];
+                    if (clase == ES_SALTO_LINEA && FIN_REGISTRO[anterior] && (iniciales[t] & sinFin) != 0) {
+                        for (int s = 0; s < ESTADOS; s++) {
+                            if ((iniciales[t] & sinFin & (1 << s)) != 0) {
+                                finRegistro[s] = posicion + i + 1;
+                            }
+                        }
+                        sinFin &= ~iniciales[t];
+                    }
+                }
+                if (clase == ES_SALTO_LINEA && activos > 1) {
+                    activos = unir(estados, iniciales, activos);
+                }
+            }
+            posicion += leidos;
+        }
+
+        int[] estadoFinal = new int[ESTADOS];
+        for (int t = 0; t < activos; t++) {
+            for (int s = 0; s < ESTADOS; s++) {
+                if ((iniciales[t] & (1 << s)) != 0) {
+                    estadoFinal[s] = estados[t];
+                }
+            }
+        }
+        return new Recorrido(estadoFinal, finRegistro);
+    }
+
+    /**
+     * Une los recorridos que estan en el mismo estado, desde ahi avanzan igual.
+     *
+     * @return El numero de recorridos activos.
+     */
+    private static int unir(int[] estados, int[] iniciales, int activos) {
+        for (int t = 0; t < activos; t++) {
+            for (int u = t + 1; u < activos; u++) {
+                if (estados[u] == estados[t]) {
+                    iniciales[t] |= iniciales[u];
+                    activos--;
+                    estados[u] = estados[activos];
+                    iniciales[u] = iniciales[activos];
+                    u--;
+                }
+            }
+        }
+        return activos;
+    }
+
+    /**
+     * Resultado de recorrer un bloque, por estado inicial: el estado al final del bloque y la posicion siguiente al
+     * primer salto de linea que termina un registro (-1 si no hay).
+     */
+    private record Recorrido(int[] estadoFinal, long[] finRegistro) {
+    }
+
+    private interface TareaBloque {
+        void ejecutar(int bloque) throws IOException;
+    }
+
+    /**
+     * Ejecuta una tarea por bloque dividiendo el rango de bloques a la mitad hasta llegar a un solo bloque.
+     */
+    private static class PorBloque extends RecursiveAction {
+        private final int desde;
+        private final int hasta;
+        private final transient TareaBloque tarea;
+
+        private PorBloque(int desde, int hasta, TareaBloque tarea) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.tarea = tarea;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= 1) {
+                if (desde < hasta) {
+                    try {
+                        tarea.ejecutar(desde);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return;
+            }
+            int mitad = (desde + hasta) >>> 1;
+            invokeAll(new PorBloque(desde, mitad, tarea), new PorBloque(mitad, hasta, tarea));
+        }
+    }
+}
@@ -6,6 +6,8 @@ import java.util.Properties;
 
 public class PropertyFileReader {
 
+    private static volatile Properties configuracion;
+
     private PropertyFileReader() {
         throw new IllegalStateException("Utility class");
     }
@@ -41,4 +43,69 @@ public class PropertyFileReader {
         }
         return properties;
     }
+
+    /**
+     * Obtiene el valor de una propiedad de configuracion. Las propiedades del sistema (-Dclave=valor) tienen prioridad
+     * sobre el archivo 'src/main/resources/config.properties', que solo se lee una vez por JVM.
+     *
+     * @param clave           La clave de la propiedad.
+     * @param valorPorDefecto El valor que se devuelve si la propiedad no esta definida.
+     * @return El valor de la propiedad o el valor por defecto.
+     */
+    public static String obtenerPropiedad(String clave, String valorPorDefecto) {
+        String valorSistema = System.getProperty(clave);
+        if (valorSistema != null) {
+            return valorSistema.trim();
+        }
+        String valor = configuracion().getProperty(clave);
+        return valor == null ? valorPorDefecto : valor.trim();
+    }
+
+    /**
+     * Obtiene el valor numerico de una propiedad de configuracion.
+     *
+     * @param clave           La clave de la propiedad.
+     * @param valorPorDefecto El valor que se devuelve si la propiedad no esta definida o no es un numero.
+     * @return El valor de la propiedad o el valor por defecto.
+     */
+    public static int obtenerPropiedad(String clave, int valorPorDefecto) {
+        String valor = obtenerPropiedad(clave, (String) null);
+        if (valor == null || valor.isEmpty()) {
+            return valorPorDefecto;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            return valorPorDefecto;
+        }
+    }
+
+    /**
+     * Obtiene el valor booleano de una propiedad de configuracion.
+     *
+     * @param clave           La clave de la propiedad.
+     * @param valorPorDefecto El valor que se devuelve si la propiedad no esta definida.
+     * @return El valor de la propiedad o el valor por defecto.
+     */
+    public static boolean obtenerPropiedad(String clave, boolean valorPorDefecto) {
+        String valor = obtenerPropiedad(clave, (String) null);
+        if (valor == null || valor.isEmpty()) {
+            return valorPorDefecto;
+        }
+        return Boolean.parseBoolean(valor);
+    }
+
+    private static Properties configuracion() {
+        Properties propiedades = configuracion;
+        if (propiedades == null) {
+            synchronized (PropertyFileReader.class) {
+                propiedades = configuracion;
+                if (propiedades == null) {
+                    propiedades = readProperty();
+                    configuracion = propiedades;
+                }
+            }
+        }
+        return propiedades;
+    }
 }
@@ -0,0 +1,410 @@
+package com.periferiaitgroup.utilities;
+
+import com.periferiaitgroup.constantes.TipoColumna;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Tabla de datos de prueba en memoria organizada por columnas, cargada desde Excel o CSV.
+ * <br/>
+ * Cada columna se guarda como codigos de diccionario mas un arreglo primitivo del tipo inferido ({@link TipoColumna}):
+ * int, long, double, bits para los booleanos y dias para las fechas, asi una matriz de parametros grande con valores
+ * repetidos ocupa una fraccion de la memoria de un {@code String[][]}. El tipo solo es numerico si todos los valores
+ * estan escritos en forma canonica, y {@link #getTexto(int, String)} siempre devuelve el texto original; con
+ * {@link #comoTexto(String...)} se fuerza una columna a TEXTO. Los filtros y proyecciones no copian los datos ni
+ * crean objetos por celda: devuelven una vista con las filas seleccionadas sobre las mismas columnas. Los valores
+ * solo se convierten a objetos al entregar las filas a TestNG con {@link #filas()} o {@link #aArreglo()}.
+ */
+public class TablaDatos {
+
+    private final String[] nombres;
+    private final ColumnaDatos[] columnas;
+    private final Map<String, Integer> indices;
+    /** Filas de las columnas que forman la tabla, null si son todas. */
+    private final int[] seleccion;
+    private final int numeroFilas;
+
+    private TablaDatos(String[] nombres, ColumnaDatos[] columnas, int[] seleccion, int numeroFilas) {
+        this.nombres = nombres;
+        this.columnas = columnas;
+        this.seleccion = seleccion;
+        this.numeroFilas = numeroFilas;
+        this.indices = new HashMap<>();
+        for (int i = 0; i < nombres.length; i++) {
+            indices.putIfAbsent(nombres[i], i);
+        }
+    }
+
+    /**
+     * Carga una hoja de Excel leyendola en streaming, la primera fila es el encabezado.
+     *
+     * @param filePath  La ruta del archivo xlsx.
+     * @param sheetName El nombre de la hoja.
+     * @return La tabla con las filas de datos de la hoja.
+     */
+    public static TablaDatos desdeExcel(String filePath, String sheetName) {
+        try (IteradorFilasExcel filas = new IteradorFilasExcel(filePath, sheetName, true)) {
+            if (!filas.hasNext()) {
+                throw new IllegalArgumentException("La hoja " + sheetName + " de " + filePath + " no tiene encabezado");
+            }
+            Constructor constructor = constructor(texto(filas.next()));
+            while (filas.hasNext()) {
+                constructor.agregarFila(texto(filas.next()));
+            }
+            return constructor.construir();
+        }
+    }
+
+    /**
+     * Carga un archivo CSV en UTF-8, la primera fila es el encabezado.
+     *
+     * @param archivoCSV El archivo a leer.
+     * @param separador  El caracter separador de los campos.
+     * @return La tabla con las filas de datos del archivo.
+     * @throws IOException Si hay un error al leer el archivo.
+     */
+    public static TablaDatos desdeCSV(File archivoCSV, char separador) throws IOException {
+        return desdeCSV(archivoCSV, separador, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Carga un archivo CSV, la primera fila es el encabezado.
+     *
+     * @param archivoCSV El archivo a leer.
+     * @param separador  El caracter separador de los campos.
+     * @param charset    La codificacion del archivo.
+     * @return La tabla con las filas de datos del archivo.
+     * @throws IOException Si hay un error al leer el archivo.
+     */
+    public static TablaDatos desdeCSV(File archivoCSV, char separador, Charset charset) throws IOException {
+        try (LectorCSV lector = new LectorCSV(archivoCSV, separador, charset)) {
+            if (!lector.hasNext()) {
+                throw new IOException("El archivo " + archivoCSV + " no tiene encabezado");
+            }
+            Constructor constructor = constructor(lector.next());
+            while (lector.hasNext()) {
+                constructor.agregarFila(lector.next());
+            }
+            return constructor.construir();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Crea un constructor para cargar la tabla desde otra fuente fila por fila.
+     *
+     * @param encabezados Los nombres de las columnas.
+     * @return El constructor de la tabla.
+     */
+    public static Constructor constructor(String... encabezados) {
+        return new Constructor(encabezados);
+    }
+
+    public int getNumeroFilas() {
+        return numeroFilas;
+    }
+
+    public List<String> getColumnas() {
+        return List.of(nombres);
+    }
+
+    public TipoColumna getTipo(String columna) {
+        return columna(columna).tipo();
+    }
+
+    public boolean isNulo(int fila, String columna) {
+        return columna(columna).nulos.get(fila(fila));
+    }
+
+    public int getInt(int fila, String columna) {
+        return columna(columna, ColumnaDatos.Entera.class).valores[fila(fila)];
+    }
+
+    /**
+     * Valor de una columna de tipo ENTERO o LARGO.
+     */
+    public long getLong(int fila, String columna) {
+        ColumnaDatos datos = columna(columna);
+        if (datos instanceof ColumnaDatos.Entera entera) {
+            return entera.valores[fila(fila)];
+        }
+        return columna(columna, ColumnaDatos.Larga.class).valores[fila(fila)];
+    }
+
+    /**
+     * Valor de una columna numerica (ENTERO, LARGO o DECIMAL).
+     */
+    public double getDouble(int fila, String columna) {
+        ColumnaDatos datos = columna(columna);
+        int posicion = fila(fila);
+        if (datos instanceof ColumnaDatos.Entera entera) {
+            return entera.valores[posicion];
+        }
+        if (datos instanceof ColumnaDatos.Larga larga) {
+            return larga.valores[posicion];
+        }
+        return columna(columna, ColumnaDatos.Decimal.class).valores[posicion];
+    }
+
+    public boolean getBoolean(int fila, String columna) {
+        return columna(columna, ColumnaDatos.Booleana.class).valores.get(fila(fila));
+    }
+
+    public LocalDate getFecha(int fila, String columna) {
+        ColumnaDatos.Fecha fecha = columna(columna, ColumnaDatos.Fecha.class);
+        int posicion = fila(fila);
+        return fecha.nulos.get(posicion) ? null : LocalDate.ofEpochDay(fecha.valores[posicion]);
+    }
+
+    /**
+     * Texto original de la celda en cualquier columna, tal como venia en el archivo, "" si la celda esta vacia.
+     */
+    public String getTexto(int fila, String columna) {
+        return columna(columna).texto(fila(fila));
+    }
+
+    /**
+     * Valor de cualquier columna como objeto (Integer, Long, Double, Boolean, LocalDate o String), null si la celda
+     * esta vacia.
+     */
+    public Object getValor(int fila, String columna) {
+        return columna(columna).valor(fila(fila));
+    }
+
+    public TablaDatos filtrarEnteros(String columna, IntPredicate condicion) {
+        ColumnaDatos.Entera datos = columna(columna, ColumnaDatos.Entera.class);
+        return filtrar(posicion -> !datos.nulos.get(posicion) && condicion.test(datos.valores[posicion]));
+    }
+
+    public TablaDatos filtrarLargos(String columna, LongPredicate condicion) {
+        ColumnaDatos datos = columna(columna);
+        if (datos instanceof ColumnaDatos.Entera entera) {
+            return filtrar(posicion -> !entera.nulos.get(posicion) && condicion.test(entera.valores[posicion]));
+        }
+        ColumnaDatos.Larga larga = columna(columna, ColumnaDatos.Larga.class);
+        return filtrar(posicion -> !larga.nulos.get(posicion) && condicion.test(larga.valores[posicion]));
+    }
+
+    public TablaDatos filtrarDecimales(String columna, DoublePredicate condicion) {
+        ColumnaDatos.Decimal datos = columna(columna, ColumnaDatos.Decimal.class);
+        return filtrar(posicion -> !datos.nulos.get(posicion) && condicion.test(datos.valores[posicion]));
+    }
+
+    public TablaDatos filtrarBooleanos(String columna, boolean valor) {
+        ColumnaDatos.Booleana datos = columna(columna, ColumnaDatos.Booleana.class);
+        return filtrar(posicion -> !datos.nulos.get(posicion) && datos.valores.get(posicion) == valor);
+    }
+
+    /**
+     * Filtra por el texto de una columna TEXTO. La condicion se evalua una vez por valor distinto del diccionario y
+     * luego las filas se comparan por codigo.
+     */
+    public TablaDatos filtrarTexto(String columna, Predicate<String> condicion) {
+        ColumnaDatos.Texto datos = columna(columna, ColumnaDatos.Texto.class);
+        boolean[] aceptados = new boolean[datos.diccionario.length];
+        for (int c = 1; c < aceptados.length; c++) {
+            aceptados[c] = condicion.test(datos.diccionario[c]);
+        }
+        return filtrar(posicion -> aceptados[datos.codigos[posicion]]);
+    }
+
+    /**
+     * Devuelve una vista en la que las columnas indicadas son de tipo TEXTO, para datos que parecen numeros pero se
+     * deben tratar como texto (documentos, cuentas, codigos). No copia los datos.
+     *
+     * @param columnasTexto Los nombres de las columnas.
+     * @return La tabla con las columnas como texto.
+     */
+    public TablaDatos comoTexto(String... columnasTexto) {
+        ColumnaDatos[] convertidas = columnas.clone();
+        for (String columna : columnasTexto) {
+            columna(columna); // valida que la columna exista
+            for (int j = 0; j < nombres.length; j++) {
+                if (nombres[j].equals(columna)) {
+                    convertidas[j] = columnas[j].comoTexto();
+                }
+            }
+        }
+        return new TablaDatos(nombres, convertidas, seleccion, numeroFilas);
+    }
+
+    /**
+     * Devuelve una vista con solo las columnas indicadas, en ese orden.
+     *
+     * @param columnasProyectadas Los nombres de las columnas.
+     * @return La tabla proyectada.
+     */
+    public TablaDatos proyectar(String... columnasProyectadas) {
+        ColumnaDatos[] seleccionadas = new ColumnaDatos[columnasProyectadas.length];
+        for (int i = 0; i < columnasProyectadas.length; i++) {
+            seleccionadas[i] = columna(columnasProyectadas[i]);
+        }
+        return new TablaDatos(columnasProyectadas.clone(), seleccionadas, seleccion, numeroFilas);
+    }
+
+    /**
+     * Entrega las filas de forma perezosa para un {@code @DataProvider}, cada fila se convierte a objetos al pedirla.
+     *
+     * @return Las filas de la tabla con los valores como objetos.
+     */
+    public Iterator<Object[]> filas() {
+        return new Iterator<>() {
+            private int fila;
+
+            @Override
+            public boolean hasNext() {
+                return fila < numeroFilas;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return valoresFila(fila++);
+            }
+        };
+    }
+
+    /**
+     * Copia la tabla en un arreglo de filas, con los valores como objetos.
+     */
+    public Object[][] aArreglo() {
+        Object[][] arreglo = new Object[numeroFilas][];
+        for (int i = 0; i < numeroFilas; i++) {
+            arreglo[i] = valoresFila(i);
+        }
+        return arreglo;
+    }
+
+    private Object[] valoresFila(int fila) {
+        int posicion = fila(fila);
+        Object[] valores = new Object[columnas.length];
+        for (int j = 0; j < columnas.length; j++) {
+            valores[j] = columnas[j].valor(posicion);
+        }
+        return valores;
+    }
+
+    private TablaDatos filtrar(IntPredicate condicion) {
+        int[] filas = new int[numeroFilas];
+        int seleccionadas = 0;
+        for (int i = 0; i < numeroFilas; i++) {
+            int posicion = fila(i);
+            if (condicion.test(posicion)) {
+                filas[seleccionadas++] = posicion;
+            }
+        }
+        return new TablaDatos(nombres, columnas, Arrays.copyOf(filas, seleccionadas), seleccionadas);
+    }
+
+    /**
+     * Convierte el numero de fila de la tabla en la posicion dentro de las columnas.
+     */
+    private int fila(int fila) {
+        if (fila < 0 || fila >= numeroFilas) {
+            throw new IndexOutOfBoundsException("La fila " + fila + " no existe, la tabla tiene " + numeroFilas + " filas");
+        }
+        return seleccion == null ? fila : seleccion[fila];
+    }
+
+    private ColumnaDatos columna(String columna) {
+        Integer indice = indices.get(columna);
+        if (indice == null) {
+            throw new IllegalArgumentException("La columna " + columna + " no existe, columnas: " + Arrays.toString(nombres));
+        }
+        return columnas[indice];
+    }
+
+    private <T extends ColumnaDatos> T columna(String columna, Class<T> tipo) {
+        ColumnaDatos datos = columna(columna);
+        if (!tipo.isInstance(datos)) {
+            throw new IllegalStateException("La columna " + columna + " es de tipo " + datos.tipo());
+        }
+        return tipo.cast(datos);
+    }
+
+    private static String[] texto(Object[] fila) {
+        return Arrays.copyOf(fila, fila.length, String[].class);
+    }
+
+    /**
+     * Carga una {@link TablaDatos} fila por fila. Mientras se carga, cada celda se guarda como el codigo de su valor en
+     * el diccionario de la columna; al construir la tabla se infiere el tipo de cada columna sobre sus valores
+     * distintos.
+     */
+    public static class Constructor {
+        private final String[] nombres;
+        private final List<Map<String, Integer>> codigosPorValor = new ArrayList<>();
+        private final List<List<String>> diccionarios = new ArrayList<>();
+        private int[][] codigos;
+        private int filas;
+
+        private Constructor(String[] nombres) {
+            if (nombres.length == 0) {
+                throw new IllegalArgumentException("La tabla debe tener al menos una columna");
+            }
+            this.nombres = nombres.clone();
+            this.codigos = new int[nombres.length][64];
+            for (int j = 0; j < nombres.length; j++) {
+                codigosPorValor.add(new HashMap<>());
+                List<String> diccionario = new ArrayList<>();
+                diccionario.add("");
+                diccionarios.add(diccionario);
+            }
+        }
+
+        /**
+         * Agrega una fila, las celdas que faltan se toman como vacias y las que sobran se ignoran.
+         *
+         * @param fila Los valores de la fila como texto.
+         * @return El mismo constructor.
+         */
+        public Constructor agregarFila(String... fila) {
+            if (filas == codigos[0].length) {
+                for (int j = 0; j < codigos.length; j++) {
+                    codigos[j] = Arrays.copyOf(codigos[j], filas * 2);
+                }
+            }
+            for (int j = 0; j < nombres.length; j++) {
+                String valor = j < fila.length && fila[j] != null ? fila[j] : "";
+                codigos[j][filas] = valor.isEmpty() ? 0 : codigo(j, valor);
+            }
+            filas++;
+            return this;
+        }
+
+        public TablaDatos construir() {
+            ColumnaDatos[] columnas = new ColumnaDatos[nombres.length];
+            for (int j = 0; j < nombres.length; j++) {
+                columnas[j] = ColumnaDatos.crear(codigos[j], filas, diccionarios.get(j));
+            }
+            return new TablaDatos(nombres, columnas, null, filas);
+        }
+
+        private int codigo(int columna, String valor) {
+            List<String> diccionario = diccionarios.get(columna);
+            return codigosPorValor.get(columna).computeIfAbsent(valor, nuevo -> {
+                diccionario.add(nuevo);
+                return diccionario.size() - 1;
+            });
+        }
+    }
+}
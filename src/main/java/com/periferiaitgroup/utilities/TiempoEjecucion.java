@@ -4,17 +4,26 @@ import java.time.Duration;
 import java.time.LocalTime;
 
 public class TiempoEjecucion {
-    private static LocalTime startTime;
+    private static final ThreadLocal<LocalTime> startTime = new ThreadLocal<>();
 
     private TiempoEjecucion() {}
 
     public static void start() {
-        startTime = LocalTime.now();
+        startTime.set(LocalTime.now());
     }
 
     public static String getRunTime() {
         LocalTime endTime = LocalTime.now();
-        Duration duration = Duration.between(startTime, endTime);
+        return formatear(Duration.between(startTime.get(), endTime));
+    }
+
+    /**
+     * Formatea una duracion como HH:mm:ss.
+     *
+     * @param duration La duracion a formatear.
+     * @return La duracion formateada.
+     */
+    public static String formatear(Duration duration) {
         long hours = duration.toHours();
         duration = duration.minusHours(hours);
         long minutes = duration.toMinutes();
@@ -1,6 +1,5 @@
 package RunPruebas;
 
-import com.epam.healenium.SelfHealingDriver;
 import com.periferiaitgroup.Periferia;
 import com.periferiaitgroup.constantes.Navegador;
 import com.periferiaitgroup.evidencia.GenerarEvidencia;
@@ -10,7 +9,8 @@ import io.qameta.allure.Description;
 import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
 import io.qameta.allure.Story;
-import org.testng.annotations.AfterTest;
+import org.testng.ITestResult;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -20,13 +20,12 @@ import java.util.Properties;
 
 public class TestPrincipal {
 
-    static SelfHealingDriver driver;
     static TestPage testPage;
 
     static String url;
     static String nombreAnalista;
 
-    @DataProvider(name = "dpExcel")
+    @DataProvider(name = "dpExcel", parallel = true)
     public Object[][] dpGeneralExcel() {
         return GestorArchivosExcel.getTableArray("./Data/Data.xlsx", "Inicio");
     }
@@ -38,7 +37,7 @@ public class TestPrincipal {
         nombreAnalista = properties.getProperty("ANALISTA");
 
         // Instaciación de las pageObj
-        testPage = new TestPage(driver);
+        testPage = new TestPage(Periferia.getDriver());
     }
 
     @Test(dataProvider = "dpExcel")
@@ -48,7 +47,7 @@ public class TestPrincipal {
     public void testComplete(String parameterOne, String paramaterTwo) {
         String nameTest = Thread.currentThread().getStackTrace()[1].getMethodName();
 
-        driver = Periferia.setUp(Navegador.CHROME, url);
+        Periferia.setUp(Navegador.CHROME, url);
 
         GenerarEvidencia.iniciarEvidencia(nameTest, nombreAnalista, url);
 
@@ -64,7 +63,7 @@ public class TestPrincipal {
     public void testMethods() {
         String nameTest = Thread.currentThread().getStackTrace()[1].getMethodName();
 
-        driver = Periferia.setUp(Navegador.CHROME, url);
+        Periferia.setUp(Navegador.CHROME, url);
 
         GenerarEvidencia.iniciarEvidencia(nameTest, nombreAnalista, url);
 
@@ -76,8 +75,11 @@ public class TestPrincipal {
         GenerarEvidencia.finalizarEvidencia();
     }
 
-    @AfterTest
-    public void afterTest() {
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod(ITestResult result) {
+        if (!result.isSuccess()) {
+            GenerarEvidencia.registrarFallo();
+        }
         Periferia.tearDown();
     }
 
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import com.epam.healenium.SelfHealingDriver;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.periferiaitgroup.constantes.Navegador;
+import com.periferiaitgroup.constantes.PerfilNavegador;
+import com.periferiaitgroup.driver_manager.SeleniumDriver;
+import com.periferiaitgroup.utilities.CaptureScreen;
+import org.apache.commons.io.FileUtils;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Compara el camino de evidencia por archivos (OutputType.FILE, copia, lectura desde disco y borrado) contra el
+ * camino en memoria (OutputType.BYTES directo al pdf) con capturas de 1920x1080.
+ * <br/>
+ * Ejecucion: mvn test -Dtest=BenchmarkCapturasEvidencia -Dbenchmark.capturas=50
+ */
+public class BenchmarkCapturasEvidencia {
+
+    private static final int CAPTURAS = Integer.getInteger("benchmark.capturas", 50);
+    private static final String URL = Paths.get("src/test/resources/Page-Test/index.html").toUri().toString();
+
+    private SelfHealingDriver driver;
+    private File carpeta;
+
+    @BeforeClass
+    public void iniciar() throws Exception {
+        System.setProperty("NAVEGADOR_VIEWPORT", "1920x1080");
+        driver = SeleniumDriver.initDriver(Navegador.CHROME, PerfilNavegador.HEADLESS);
+        driver.get(URL);
+        carpeta = Files.createTempDirectory("benchmark-capturas").toFile();
+    }
+
+    @Test
+    public void medirCapturas() throws Exception {
+        WebDriver delegate = driver.getDelegate();
+
+        // Calentamiento para que ambos caminos midan con el navegador y la JVM estables
+        for (int i = 0; i < 5; i++) {
+            escribirEnPdf(Image.getInstance(CaptureScreen.capturarBytes(driver)));
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < CAPTURAS; i++) {
+            File temporal = ((TakesScreenshot) delegate).getScreenshotAs(OutputType.FILE);
+            File copia = new File(carpeta, i + ".png");
+            FileUtils.copyFile(temporal, copia);
+            escribirEnPdf(Image.getInstance(copia.getPath()));
+            Files.delete(copia.toPath());
+        }
+        double archivosMs = (System.nanoTime() - inicio) / 1_000_000.0;
+
+        inicio = System.nanoTime();
+        for (int i = 0; i < CAPTURAS; i++) {
+            escribirEnPdf(Image.getInstance(CaptureScreen.capturarBytes(driver)));
+        }
+        double memoriaMs = (System.nanoTime() - inicio) / 1_000_000.0;
+
+        System.out.println("Benchmark capturas de evidencia 1920x1080 (" + CAPTURAS + " capturas)");
+        System.out.printf("Archivos (FILE + copia + lectura): %8.1f ms total  %6.2f capturas/seg%n", archivosMs, CAPTURAS * 1000 / archivosMs);
+        System.out.printf("Memoria (BYTES directo al pdf):    %8.1f ms total  %6.2f capturas/seg%n", memoriaMs, CAPTURAS * 1000 / memoriaMs);
+    }
+
+    private static void escribirEnPdf(Image imagen) throws Exception {
+        Document documento = new Document();
+        PdfWriter.getInstance(documento, OutputStream.nullOutputStream());
+        documento.open();
+        imagen.scalePercent(26, 26);
+        documento.add(imagen);
+        documento.close();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void cerrar() throws Exception {
+        if (driver != null) {
+            driver.quit();
+        }
+        FileUtils.deleteDirectory(carpeta);
+    }
+}
@@ -0,0 +1,117 @@
+package benchmarks;
+
+import com.periferiaitgroup.utilities.GestorArchivosExcel;
+import com.periferiaitgroup.utilities.IteradorFilasExcel;
+import org.apache.commons.io.FileUtils;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara la lectura de una hoja grande con {@link GestorArchivosExcel#getTableArray(String, String)} (DOM de POI
+ * completo mas una copia en String[][]) contra {@link GestorArchivosExcel#getTableIterator(String, String)} (lector
+ * SAX en streaming). Mide el tiempo total y el pico de heap de cada forma de lectura.
+ * <br/>
+ * Ejecucion: mvn test -Dtest=BenchmarkExcelStreaming -Dbenchmark.filas=100000
+ * <br/>
+ * Con -Xmx256m la lectura con getTableArray de 100.000 filas falla por falta de memoria y la lectura en streaming no.
+ */
+public class BenchmarkExcelStreaming {
+
+    private static final int FILAS = Integer.getInteger("benchmark.filas", 100_000);
+    private static final int COLUMNAS = 8;
+    private static final String HOJA = "Datos";
+
+    private final List<String> resultados = new ArrayList<>();
+    private File carpeta;
+    private File libro;
+
+    @BeforeClass
+    public void iniciar() throws Exception {
+        carpeta = Files.createTempDirectory("benchmark-excel").toFile();
+        libro = new File(carpeta, "Datos.xlsx");
+
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100); OutputStream salida = new FileOutputStream(libro)) {
+            Sheet hoja = workbook.createSheet(HOJA);
+            Row encabezado = hoja.createRow(0);
+            for (int j = 0; j < COLUMNAS; j++) {
+                encabezado.createCell(j).setCellValue("columna" + j);
+            }
+            for (int i = 1; i <= FILAS; i++) {
+                Row fila = hoja.createRow(i);
+                for (int j = 0; j < COLUMNAS; j++) {
+                    if (j % 2 == 0) {
+                        fila.createCell(j).setCellValue("usuario_" + (i % 5000) + "_" + j);
+                    } else {
+                        fila.createCell(j).setCellValue(i * 10.0 + j);
+                    }
+                }
+            }
+            workbook.write(salida);
+            workbook.dispose();
+        }
+    }
+
+    @Test
+    public void medirGetTableArray() {
+        medir("getTableArray", () -> {
+            Object[][] filas = GestorArchivosExcel.getTableArray(libro.getPath(), HOJA);
+            return filas == null ? 0 : filas.length;
+        });
+    }
+
+    @Test
+    public void medirGetTableIterator() {
+        medir("getTableIterator", () -> {
+            long filas = 0;
+            try (IteradorFilasExcel iterador = (IteradorFilasExcel) GestorArchivosExcel.getTableIterator(libro.getPath(), HOJA)) {
+                while (iterador.hasNext()) {
+                    iterador.next();
+                    filas++;
+                }
+            }
+            return filas;
+        });
+    }
+
+    private void medir(String nombre, Lectura lectura) {
+        System.gc();
+        List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP).toList();
+        long heapInicial = pools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+        pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long inicio = System.nanoTime();
+        long filas = lectura.leer();
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        long heapPico = pools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+        resultados.add(String.format("%-17s %8d filas  heap inicial: %7.1f MB  heap pico: %7.1f MB  tiempo: %6.2f s",
+                nombre, filas, heapInicial / 1_048_576.0, heapPico / 1_048_576.0, segundos));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void imprimirResultados() {
+        System.out.printf("Benchmark lectura de Excel (%d filas, %d columnas, archivo de %.1f MB)%n",
+                FILAS, COLUMNAS, libro.length() / 1_048_576.0);
+        resultados.forEach(System.out::println);
+        FileUtils.deleteQuietly(carpeta);
+    }
+
+    private interface Lectura {
+        long leer();
+    }
+}
@@ -0,0 +1,166 @@
+package benchmarks;
+
+import com.opencsv.CSVReader;
+import com.periferiaitgroup.utilities.GestorArchivosCSV;
+import com.periferiaitgroup.utilities.LectorCSV;
+import com.periferiaitgroup.utilities.LectorCSVParalelo;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara la lectura de un CSV grande con el CSVReader de OpenCSV sobre un FileReader (la lectura anterior de
+ * {@link GestorArchivosCSV}, sin contar la separacion adicional por regex de cada campo) contra {@link LectorCSV} y
+ * {@link LectorCSVParalelo} con y sin orden. Mide el tiempo total y el rendimiento en MB/s de cada forma de lectura.
+ * <br/>
+ * Ademas comprueba que la lectura en paralelo entregue exactamente las mismas filas que la secuencial con bloques
+ * pequeños, campos entre comillas con saltos de linea que cruzan los limites de bloque y comillas literales en medio
+ * de un campo.
+ * <br/>
+ * Ejecucion: mvn test -Dtest=BenchmarkLectorCSV -Dbenchmark.mb=100
+ */
+public class BenchmarkLectorCSV {
+
+    private static final int MEGABYTES = Integer.getInteger("benchmark.mb", 100);
+
+    private final List<String> resultados = new ArrayList<>();
+    private File carpeta;
+    private File archivo;
+
+    @BeforeClass
+    public void iniciar() throws Exception {
+        carpeta = Files.createTempDirectory("benchmark-csv").toFile();
+        archivo = new File(carpeta, "datos.csv");
+
+        long objetivo = MEGABYTES * 1_048_576L;
+        try (BufferedWriter salida = Files.newBufferedWriter(archivo.toPath(), StandardCharsets.UTF_8)) {
+            salida.write("id,usuario,correo,monto,activo,comentario\n");
+            for (long i = 1; archivo.length() < objetivo; i++) {
+                salida.write(i + ",usuario_" + (i % 5000) + ",usuario" + i + "@correo.com," + (i * 7 % 100000) / 100.0
+                        + "," + (i % 2 == 0) + ",\"comentario con, coma y \"\"comillas\"\" " + i + "\"\n");
+                if (i % 10_000 == 0) {
+                    salida.flush();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void medirOpenCSV() {
+        medir("OpenCSV", () -> {
+            long filas = 0;
+            try (CSVReader reader = new CSVReader(new FileReader(archivo, StandardCharsets.UTF_8))) {
+                while (reader.readNext() != null) {
+                    filas++;
+                }
+            }
+            return filas;
+        });
+    }
+
+    @Test
+    public void medirLectorCSV() {
+        medir("LectorCSV", () -> {
+            long filas = 0;
+            try (LectorCSV lector = new LectorCSV(archivo, ',', StandardCharsets.UTF_8)) {
+                while (lector.hasNext()) {
+                    lector.next();
+                    filas++;
+                }
+            }
+            return filas;
+        });
+    }
+
+    @Test
+    public void medirLectorCSVParaleloOrdenado() {
+        medirParalelo("Paralelo", true);
+    }
+
+    @Test
+    public void medirLectorCSVParaleloSinOrden() {
+        medirParalelo("Sin orden", false);
+    }
+
+    @Test
+    public void compararParaleloConSecuencial() throws Exception {
+        File mixto = new File(carpeta, "mixto.csv");
+        try (Writer salida = Files.newBufferedWriter(mixto.toPath(), StandardCharsets.UTF_8)) {
+            salida.write("id,producto,nota\r\n");
+            for (int i = 0; i < 20_000; i++) {
+                switch (i % 5) {
+                    case 0 -> salida.write(i + ",Monitor 27\",a\"b\"c\n");
+                    case 1 -> salida.write(i + ",\"linea uno\nlinea dos " + "x".repeat(i % 700) + " \"\"citado\"\", coma\",\"\"\r\n");
+                    case 2 -> salida.write(i + ",\"\"\"inicio\",\"a\"b\n");
+                    case 3 -> salida.write(i + ",\"\n\n,\n\",fin\r\n");
+                    default -> salida.write(i + ",valor " + i + ",\"\"\"\"\n");
+                }
+            }
+        }
+
+        List<String[]> secuencial = new ArrayList<>();
+        try (LectorCSV lector = new LectorCSV(mixto, ',', StandardCharsets.UTF_8)) {
+            lector.forEachRemaining(secuencial::add);
+        }
+        for (long bloque : new long[]{97, 4096}) {
+            List<String[]> paralelo = new ArrayList<>();
+            try (LectorCSVParalelo lector = new LectorCSVParalelo(mixto, ',', StandardCharsets.UTF_8, true, bloque)) {
+                lector.forEachRemaining(paralelo::add);
+            }
+            Assert.assertEquals(paralelo.size(), secuencial.size(), "Filas con bloques de " + bloque + " bytes");
+            for (int i = 0; i < secuencial.size(); i++) {
+                Assert.assertEquals(paralelo.get(i), secuencial.get(i), "Fila " + i + " con bloques de " + bloque + " bytes");
+            }
+        }
+    }
+
+    private void medirParalelo(String nombre, boolean ordenado) {
+        medir(nombre, () -> {
+            long filas = 0;
+            try (LectorCSVParalelo lector = new LectorCSVParalelo(archivo, ',', StandardCharsets.UTF_8, ordenado)) {
+                while (lector.hasNext()) {
+                    lector.next();
+                    filas++;
+                }
+            }
+            return filas;
+        });
+    }
+
+    private void medir(String nombre, Lectura lectura) {
+        try {
+            // Una lectura previa para calentar el JIT y la cache de disco
+            lectura.leer();
+            long inicio = System.nanoTime();
+            long filas = lectura.leer();
+            double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+            resultados.add(String.format("%-10s %10d filas  tiempo: %6.2f s  rendimiento: %7.1f MB/s",
+                    nombre, filas, segundos, archivo.length() / 1_048_576.0 / segundos));
+        } catch (Exception e) {
+            throw new IllegalStateException("Fallo la lectura con " + nombre, e);
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void imprimirResultados() {
+        System.out.printf("Benchmark lectura de CSV (archivo de %.1f MB, %d nucleos)%n",
+                archivo.length() / 1_048_576.0, Runtime.getRuntime().availableProcessors());
+        resultados.forEach(System.out::println);
+        FileUtils.deleteQuietly(carpeta);
+    }
+
+    private interface Lectura {
+        long leer() throws Exception;
+    }
+}
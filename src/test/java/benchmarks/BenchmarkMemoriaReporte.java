@@ -0,0 +1,108 @@
+package benchmarks;
+
+import com.periferiaitgroup.evidencia.GenerarReportePDF;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mide el uso de heap del reporte en pdf segun el numero de pasos de evidencia. El reporte escribe las imagenes y
+ * las paginas en el archivo a medida que se agregan, asi que el crecimiento del heap durante la ejecucion no debe
+ * aumentar entre la primera medicion (10 pasos) y las siguientes (10.000 pasos) mas alla de un margen fijo.
+ * <br/>
+ * Ejecucion: mvn test -Dtest=BenchmarkMemoriaReporte -Dbenchmark.pasos=10,1000,10000
+ */
+public class BenchmarkMemoriaReporte {
+
+    private static final String PASOS = System.getProperty("benchmark.pasos", "10,1000,10000");
+    private static final int MUESTRAS = 20;
+    private static final long MARGEN_BYTES = 32L * 1_048_576;
+
+    private final List<String> resultados = new ArrayList<>();
+    private File carpeta;
+    private File captura;
+    private Long crecimientoBase;
+
+    @BeforeClass
+    public void iniciar() throws Exception {
+        carpeta = Files.createTempDirectory("benchmark-reporte").toFile();
+        captura = new File(carpeta, "captura.png");
+
+        BufferedImage imagen = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+        Graphics2D grafico = imagen.createGraphics();
+        Random aleatorio = new Random(7);
+        for (int y = 0; y < 1080; y += 8) {
+            for (int x = 0; x < 1920; x += 8) {
+                grafico.setColor(new Color(aleatorio.nextInt(0xFFFFFF)));
+                grafico.fillRect(x, y, 8, 8);
+            }
+        }
+        grafico.dispose();
+        ImageIO.write(imagen, "png", captura);
+    }
+
+    @DataProvider(name = "pasos")
+    public Object[][] pasos() {
+        return Arrays.stream(PASOS.split(",")).map(paso -> new Object[]{Integer.parseInt(paso.trim())}).toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "pasos")
+    public void medirReporte(int pasos) {
+        File salida = new File(carpeta, "pasos_" + pasos);
+        salida.mkdirs();
+        long heapInicial = heapUsado();
+        long heapMaximo = heapInicial;
+        int intervalo = Math.max(1, pasos / MUESTRAS);
+
+        long inicio = System.nanoTime();
+        GenerarReportePDF.createTemplate(salida, "Benchmark", "Benchmark", "about:blank");
+        for (int i = 1; i <= pasos; i++) {
+            GenerarReportePDF.createBody(captura.getPath(), "Paso " + i);
+            if (i % intervalo == 0) {
+                heapMaximo = Math.max(heapMaximo, heapUsado());
+            }
+        }
+        GenerarReportePDF.closeTemplate();
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+        long tamanoPdf = FileUtils.sizeOfDirectory(salida);
+        resultados.add(String.format("%6d pasos  heap inicial: %7.1f MB  heap maximo: %7.1f MB  pdf: %8.1f MB  tiempo: %7.1f s",
+                pasos, heapInicial / 1_048_576.0, heapMaximo / 1_048_576.0, tamanoPdf / 1_048_576.0, segundos));
+        FileUtils.deleteQuietly(salida);
+
+        long crecimiento = heapMaximo - heapInicial;
+        if (crecimientoBase == null) {
+            crecimientoBase = crecimiento;
+        }
+        Assert.assertTrue(crecimiento <= crecimientoBase + MARGEN_BYTES, String.format(
+                "El heap del reporte crecio %.1f MB con %d pasos frente a %.1f MB de la primera medicion",
+                crecimiento / 1_048_576.0, pasos, crecimientoBase / 1_048_576.0));
+    }
+
+    private static long heapUsado() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void imprimirResultados() {
+        System.out.println("Benchmark memoria del reporte en pdf");
+        resultados.forEach(System.out::println);
+        FileUtils.deleteQuietly(carpeta);
+    }
+}
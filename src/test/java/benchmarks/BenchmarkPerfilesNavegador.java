@@ -0,0 +1,79 @@
+package benchmarks;
+
+import com.epam.healenium.SelfHealingDriver;
+import com.periferiaitgroup.constantes.Navegador;
+import com.periferiaitgroup.constantes.PerfilNavegador;
+import com.periferiaitgroup.driver_manager.SeleniumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara el tiempo de inicio de sesion y la latencia por accion de cada {@link PerfilNavegador}
+ * sobre la pagina de pruebas Page-Test/index.html.
+ * <br/>
+ * Ejecucion: mvn test -Dtest=BenchmarkPerfilesNavegador -Dbenchmark.sesiones=3 -Dbenchmark.acciones=50
+ */
+public class BenchmarkPerfilesNavegador {
+
+    private static final int SESIONES = Integer.getInteger("benchmark.sesiones", 3);
+    private static final int ACCIONES = Integer.getInteger("benchmark.acciones", 50);
+    private static final String URL = Paths.get("src/test/resources/Page-Test/index.html").toUri().toString();
+
+    private final List<String> resultados = new ArrayList<>();
+
+    @DataProvider(name = "perfiles")
+    public Object[][] perfiles() {
+        PerfilNavegador[] perfiles = PerfilNavegador.values();
+        Object[][] datos = new Object[perfiles.length][1];
+        for (int i = 0; i < perfiles.length; i++) {
+            datos[i][0] = perfiles[i];
+        }
+        return datos;
+    }
+
+    @Test(dataProvider = "perfiles")
+    public void medirPerfil(PerfilNavegador perfil) {
+        long inicioTotal = 0;
+        long accionesTotal = 0;
+
+        for (int sesion = 0; sesion < SESIONES; sesion++) {
+            long inicio = System.nanoTime();
+            SelfHealingDriver driver = SeleniumDriver.initDriver(Navegador.CHROME, perfil);
+            inicioTotal += System.nanoTime() - inicio;
+
+            try {
+                driver.get(URL);
+                WebDriver delegate = driver.getDelegate();
+                By boton = By.id("button-change-color");
+                By campo = By.id("input-text");
+
+                long acciones = System.nanoTime();
+                for (int i = 0; i < ACCIONES; i++) {
+                    delegate.findElement(boton).click();
+                    delegate.findElement(campo).sendKeys("x");
+                }
+                accionesTotal += System.nanoTime() - acciones;
+            } finally {
+                driver.quit();
+            }
+        }
+
+        double inicioPromedioMs = inicioTotal / 1_000_000.0 / SESIONES;
+        double latenciaAccionMs = accionesTotal / 1_000_000.0 / (SESIONES * ACCIONES * 2L);
+        resultados.add(String.format("%-13s inicio sesion: %8.1f ms   latencia por accion: %6.2f ms",
+                perfil, inicioPromedioMs, latenciaAccionMs));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void imprimirResultados() {
+        System.out.println("Benchmark perfiles de navegador (" + SESIONES + " sesiones, " + ACCIONES + " iteraciones por sesion)");
+        resultados.forEach(System.out::println);
+    }
+}